@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Measures time from "docker run" to the first successful /api/energy/mix response
+# for the standard image (Dockerfile) and the fast-start image (Dockerfile.fast-start).
+#
+# Usage: scripts/startup-benchmark.sh [runs]   (default 5 runs per image)
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=18080
+URL="http://localhost:${PORT}/api/energy/mix"
+
+cd "$(dirname "$0")/.."
+
+docker build -q -t energy-mix:standard -f Dockerfile . >/dev/null
+docker build -q -t energy-mix:fast -f Dockerfile.fast-start . >/dev/null
+
+now_ms() {
+    date +%s%3N
+}
+
+measure() {
+    local image=$1
+    local total=0
+    for run in $(seq 1 "$RUNS"); do
+        local start
+        start=$(now_ms)
+        local container
+        container=$(docker run -d -p "${PORT}:8080" "$image")
+        until curl -sf -o /dev/null "$URL"; do
+            sleep 0.05
+        done
+        local elapsed=$(( $(now_ms) - start ))
+        docker rm -f "$container" >/dev/null
+        echo "  ${image} run ${run}: ${elapsed} ms"
+        total=$(( total + elapsed ))
+    done
+    echo "${image} average: $(( total / RUNS )) ms"
+}
+
+measure energy-mix:standard
+measure energy-mix:fast
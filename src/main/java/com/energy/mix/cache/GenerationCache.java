@@ -0,0 +1,29 @@
+package com.energy.mix.cache;
+
+// Where downloaded generation data is kept between requests.
+// With an external backend all replicas share one copy, so the energy API is called
+// once per day of data instead of once per replica.
+// Values are opaque bytes - the service decides how they are encoded.
+public interface GenerationCache extends AutoCloseable {
+
+    // Cached value, or null when there is none (or it has expired)
+    byte[] get(String key);
+
+    // Stores a value; it expires after the backend's time-to-live
+    void put(String key, byte[] value);
+
+    // Tries to become the only replica refreshing this key for a short lease.
+    // Returns a token to pass to unlock, or null when someone else holds the lease
+    String tryLock(String key);
+
+    // Gives the lease back, but only if we still own it
+    void unlock(String key, String token);
+
+    // How long a lease lasts - longer than that, nobody needs to wait for its holder
+    long leaseMillis();
+
+    // Frees connections when the application stops; nothing to do for most backends
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,26 @@
+package com.energy.mix.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Picks the cache backend from energy.cache.backend ("memory" or "redis").
+// The choice is made here at run time rather than with @ConditionalOnProperty, because the
+// fast-start image (Spring AOT) would decide bean conditions once, when it is built.
+@Configuration
+public class GenerationCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public GenerationCache generationCache(@Value("${energy.cache.backend:memory}") String backend,
+                                           @Value("${energy.cache.ttl-seconds:300}") long ttlSeconds,
+                                           @Value("${energy.cache.lease-seconds:10}") long leaseSeconds,
+                                           @Value("${energy.cache.redis.host:localhost}") String redisHost,
+                                           @Value("${energy.cache.redis.port:6379}") int redisPort,
+                                           @Value("${energy.cache.redis.timeout-ms:500}") int redisTimeoutMs) {
+        return switch (backend.trim().toLowerCase()) {
+            case "memory" -> new InMemoryGenerationCache(ttlSeconds, leaseSeconds);
+            case "redis" -> new RedisGenerationCache(redisHost, redisPort, redisTimeoutMs, ttlSeconds, leaseSeconds);
+            default -> throw new IllegalArgumentException("Nieznany backend cache: " + backend + " (dostępne: memory, redis)");
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.energy.mix.cache;
+
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cache inside this process only (the default, energy.cache.backend=memory)
+public class InMemoryGenerationCache implements GenerationCache {
+
+    private record Entry(byte[] value, long expiresAt) {}
+
+    private final Map<String, Entry> values = new ConcurrentHashMap<>();
+    private final Map<String, Entry> locks = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final long leaseMs;
+
+    public InMemoryGenerationCache(long ttlSeconds, long leaseSeconds) {
+        this.ttlMs = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.leaseMs = Duration.ofSeconds(leaseSeconds).toMillis();
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Entry entry = values.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            values.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        long now = System.currentTimeMillis();
+        // Old days are never read again, so drop whatever has expired
+        values.values().removeIf(entry -> entry.expiresAt() <= now);
+        values.put(key, new Entry(value, now + ttlMs));
+    }
+
+    @Override
+    public String tryLock(String key) {
+        String token = UUID.randomUUID().toString();
+        byte[] tokenBytes = token.getBytes();
+        long now = System.currentTimeMillis();
+        Entry lock = locks.compute(key, (k, current) ->
+            current == null || current.expiresAt() <= now ? new Entry(tokenBytes, now + leaseMs) : current);
+        return lock.value() == tokenBytes ? token : null;
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        locks.computeIfPresent(key, (k, current) -> new String(current.value()).equals(token) ? null : current);
+    }
+
+    @Override
+    public long leaseMillis() {
+        return leaseMs;
+    }
+}
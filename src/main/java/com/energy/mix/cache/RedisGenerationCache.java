@@ -0,0 +1,83 @@
+package com.energy.mix.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.UUID;
+
+// Cache shared by all replicas in a Redis-compatible key-value store (energy.cache.backend=redis).
+// The refresh lease is a "SET NX PX" key. When the store can't be reached we log it and carry on
+// as if there was no cache, so requests still work - they just call the energy API themselves.
+public class RedisGenerationCache implements GenerationCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisGenerationCache.class);
+
+    private static final String KEY_PREFIX = "energy-mix:";
+
+    // Deletes the lock only if it still holds our token (so we never free someone else's lease)
+    private static final String UNLOCK_SCRIPT =
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
+    private final RespClient client;
+    private final long ttlMs;
+    private final long leaseMs;
+
+    public RedisGenerationCache(String host, int port, int timeoutMs, long ttlSeconds, long leaseSeconds) {
+        this.client = new RespClient(host, port, timeoutMs);
+        this.ttlMs = ttlSeconds * 1000;
+        this.leaseMs = leaseSeconds * 1000;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return (byte[]) client.execute("GET", KEY_PREFIX + key);
+        } catch (IOException e) {
+            log.warn("Redis niedostępny (GET {}): {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        try {
+            client.execute("SET", KEY_PREFIX + key, value, "PX", ttlMs);
+        } catch (IOException e) {
+            log.warn("Redis niedostępny (SET {}): {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public String tryLock(String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Object reply = client.execute("SET", KEY_PREFIX + "lock:" + key, token, "NX", "PX", leaseMs);
+            return "OK".equals(reply) ? token : null;
+        } catch (IOException e) {
+            // Without the store we can't coordinate - refresh on our own
+            log.warn("Redis niedostępny (lock {}): {}", key, e.getMessage());
+            return token;
+        }
+    }
+
+    @Override
+    public void unlock(String key, String token) {
+        try {
+            client.execute("EVAL", UNLOCK_SCRIPT, 1, KEY_PREFIX + "lock:" + key, token);
+        } catch (IOException e) {
+            // The lease expires by itself
+            log.warn("Redis niedostępny (unlock {}): {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public long leaseMillis() {
+        return leaseMs;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,186 @@
+package com.energy.mix.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Very small client for the Redis protocol (RESP2) - just enough for GET, SET and EVAL.
+// Connections are reused through a small pool; a connection that fails is thrown away.
+// After a network failure we stop trying for a moment, so while Redis is down every call
+// fails (and the cache falls back) at once instead of waiting for the timeout each time.
+class RespClient implements Closeable {
+
+    static final int MAX_CONNECTIONS = 16;
+    static final long RETRY_AFTER_FAILURE_MS = 2000;
+
+    private final String host;
+    private final int port;
+    private final int timeoutMs;
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private final Semaphore permits = new Semaphore(MAX_CONNECTIONS);
+    private volatile long downUntil;  // No calls before this time (ms) - Redis failed recently
+
+    RespClient(String host, int port, int timeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMs = timeoutMs;
+    }
+
+    // Sends one command and returns the reply:
+    // String (simple string), Long (integer), byte[] or null (bulk string), List (array)
+    Object execute(Object... args) throws IOException {
+        if (System.currentTimeMillis() < downUntil) {
+            throw new IOException("Redis niedostępny, pomijamy wywołanie");
+        }
+        // At most MAX_CONNECTIONS connections; waiting for a free one counts against the timeout
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Wszystkie połączenia z Redis są zajęte");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Przerwano oczekiwanie na połączenie z Redis", e);
+        }
+
+        Connection connection = null;
+        try {
+            connection = idle.poll();
+            if (connection == null) {
+                connection = new Connection();
+            }
+            Object reply = connection.execute(args);
+            idle.offer(connection);
+            return reply;
+        } catch (ErrorReply e) {
+            // Redis answered, just with an error - the connection is fine
+            idle.offer(connection);
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            if (e instanceof IOException) {
+                downUntil = System.currentTimeMillis() + RETRY_AFTER_FAILURE_MS;
+            }
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection() throws IOException {
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            socket.setSoTimeout(timeoutMs);
+            in = new BufferedInputStream(socket.getInputStream());
+            out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        Object execute(Object... args) throws IOException {
+            out.write(('*' + String.valueOf(args.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (Object arg : args) {
+                byte[] bytes = arg instanceof byte[] raw ? raw : String.valueOf(arg).getBytes(StandardCharsets.UTF_8);
+                out.write(('$' + String.valueOf(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(bytes);
+                out.write('\r');
+                out.write('\n');
+            }
+            out.flush();
+            return readReply();
+        }
+
+        private Object readReply() throws IOException {
+            int type = in.read();
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    throw new ErrorReply(line);
+                case ':':
+                    return Long.parseLong(line);
+                case '$': {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] data = in.readNBytes(length);
+                    if (data.length < length) {
+                        throw new EOFException("Połączenie z Redis przerwane");
+                    }
+                    readLine();
+                    return data;
+                }
+                case '*': {
+                    int count = Integer.parseInt(line);
+                    if (count < 0) {
+                        return null;
+                    }
+                    List<Object> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(readReply());
+                    }
+                    return items;
+                }
+                case -1:
+                    throw new EOFException("Połączenie z Redis przerwane");
+                default:
+                    throw new IOException("Nieznana odpowiedź Redis: " + (char) type);
+            }
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new EOFException("Połączenie z Redis przerwane");
+                }
+                line.write(b);
+            }
+            in.read(); // '\n'
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Nothing useful to do - the connection is dropped anyway
+            }
+        }
+    }
+
+    // Error reply from Redis itself ("-ERR ..."), not a network problem
+    private static class ErrorReply extends IOException {
+        ErrorReply(String message) {
+            super("Redis: " + message);
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.energy.mix.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration  // This class provides configuration for Spring
 public class AppConfig {
     
     @Bean  // Creates a RestTemplate for making HTTP requests to external APIs
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(@Value("${energy.upstream.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                     @Value("${energy.upstream.read-timeout-ms:5000}") int readTimeoutMs) {
+        // Without timeouts a hanging call would never fail, so it could never be retried
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return new RestTemplate(requestFactory);
     }
     
     @Bean  // Creates an ObjectMapper for converting JSON to Java objects and back
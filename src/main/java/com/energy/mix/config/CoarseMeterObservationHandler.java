@@ -0,0 +1,32 @@
+package com.energy.mix.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.Observation;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// Turns observations into timers like Spring Boot's default handler (which steps aside when this
+// bean exists), but of our own spans only the coarse steps get one. Every finished observation
+// costs a timer and a long task timer; the fine steps (one per day, parse and window search)
+// run many times per request and are already covered by the sampled span log.
+// Observations that aren't ours (http.server.requests, ...) keep their timers.
+@Component
+public class CoarseMeterObservationHandler extends DefaultMeterObservationHandler {
+
+    private static final Set<String> TIMED_STEPS = Set.of("energy.mix", "energy.optimal-charging", "energy.upstream");
+
+    public CoarseMeterObservationHandler(MeterRegistry meterRegistry) {
+        super(meterRegistry);
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        String name = context.getName();
+        if (name != null && name.startsWith("energy.")) {
+            return TIMED_STEPS.contains(name);
+        }
+        return super.supportsContext(context);
+    }
+}
@@ -0,0 +1,139 @@
+package com.energy.mix.config;
+
+import com.energy.mix.cache.InMemoryGenerationCache;
+import com.energy.mix.controller.EnergyController;
+import com.energy.mix.service.EnergyService;
+import com.energy.mix.service.UpstreamBulkhead;
+import com.energy.mix.service.UpstreamCallPolicy;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Warms up the JIT before we take traffic (energy.warmup.enabled=true).
+// Right after a deploy the JSON parsing, window search and response serialization still run
+// interpreted, so the first few thousand requests are slow. Here we run that whole path many
+// times against recorded API answers (src/main/resources/warmup, no network) on a separate
+// service instance, so the real caches and metrics stay untouched.
+// Runners finish before Spring Boot reports readiness (ACCEPTING_TRAFFIC on ApplicationReadyEvent),
+// so /actuator/health/readiness stays down until the warmup is over.
+// The switch is read at run time rather than with @ConditionalOnProperty, because the fast-start
+// image (Spring AOT) decides bean conditions when it is built.
+@Component
+public class JitWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JitWarmup.class);
+
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int iterations;
+    private final long maxMillis;
+
+    public JitWarmup(ObjectMapper objectMapper,
+                     ApplicationEventPublisher eventPublisher,
+                     @Value("${energy.warmup.enabled:false}") boolean enabled,
+                     @Value("${energy.warmup.iterations:2000}") int iterations,
+                     @Value("${energy.warmup.max-seconds:60}") long maxSeconds) {
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxMillis = maxSeconds * 1000;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        long start = System.currentTimeMillis();
+        int done = 0;
+        try (Pipeline pipeline = new Pipeline(objectMapper)) {
+            // A slow machine shouldn't keep us out of service forever
+            while (done < iterations && System.currentTimeMillis() - start < maxMillis) {
+                pipeline.request(done++);
+            }
+            log.info("JIT warmup: {} requests in {} ms", done, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // A failed warmup only means a slower start, never a failed one
+            log.warn("JIT warmup stopped after {} requests: {}", done, e.getMessage());
+        }
+    }
+
+    // The same work live requests do, from controller down to the parser, against recorded answers
+    static final class Pipeline implements AutoCloseable {
+
+        private final ObjectMapper objectMapper;
+        private final ReplayRequestFactory replay;
+        private final UpstreamCallPolicy callPolicy;
+        private final EnergyController controller;
+
+        Pipeline(ObjectMapper objectMapper) throws IOException {
+            this.objectMapper = objectMapper;
+            this.replay = new ReplayRequestFactory(objectMapper,
+                new JsonNode[] {read("warmup/generation.json"), read("warmup/generation-revised.json")},
+                read("warmup/intensity.json"));
+
+            // Own instances with no retries, no hedging and a cache that never keeps anything,
+            // so every request goes all the way through download, parsing and aggregation
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            this.callPolicy = new UpstreamCallPolicy(1, 0, 0, 0, false, 0, meterRegistry);
+            EnergyService energyService = new EnergyService(
+                new RestTemplate(replay),
+                objectMapper,
+                new UpstreamBulkhead(8, 32, 500, 2, meterRegistry),
+                callPolicy,
+                new InMemoryGenerationCache(0, 10),
+                ObservationRegistry.NOOP);
+            this.controller = new EnergyController(energyService);
+        }
+
+        // One request, answered and written to JSON like the controller's answer would be.
+        // Rotates through /mix, /optimal-charging in clean and intensity mode, and /mix with a profile.
+        // Returns the size of the answer
+        int request(int i) throws IOException {
+            // Every round of four gets the other recording, like a forecast revision
+            replay.setVariant(i / 4);
+            int hours = 1 + i % 6;
+            ResponseEntity<?> response = switch (i % 4) {
+                case 0 -> controller.getEnergyMix(null, null);
+                case 1 -> controller.getOptimalCharging(hours, "clean", 0.5, null, null);
+                case 2 -> controller.getOptimalCharging(hours, "intensity", 0.5, null, null);
+                default -> controller.getEnergyMix("low-carbon", null);
+            };
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new IllegalStateException("Rozgrzewka: odpowiedź " + response.getStatusCode() + ": " + response.getBody());
+            }
+            return objectMapper.writeValueAsBytes(response.getBody()).length;
+        }
+
+        @Override
+        public void close() {
+            callPolicy.shutdown();
+        }
+
+        private JsonNode read(String path) throws IOException {
+            try (InputStream input = new ClassPathResource(path).getInputStream()) {
+                return objectMapper.readTree(input);
+            }
+        }
+    }
+}
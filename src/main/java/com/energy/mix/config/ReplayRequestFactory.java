@@ -0,0 +1,147 @@
+package com.energy.mix.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Answers RestTemplate calls with recorded energy API responses instead of going to the network.
+// A recording holds one day; for a request it is repeated for every requested day with its times
+// moved to those days, so the service sees the same kind of data as from the real API.
+// Each answer is built once per URL and variant, later calls just copy the bytes out.
+final class ReplayRequestFactory implements ClientHttpRequestFactory {
+
+    private static final DateTimeFormatter API_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'");
+
+    private final ObjectMapper objectMapper;
+    private final JsonNode[] generation;  // recorded /generation answers, one per variant
+    private final JsonNode intensity;     // recorded /intensity answer
+    private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+    private volatile int variant;
+
+    ReplayRequestFactory(ObjectMapper objectMapper, JsonNode[] generation, JsonNode intensity) {
+        this.objectMapper = objectMapper;
+        this.generation = generation;
+        this.intensity = intensity;
+    }
+
+    // Which generation recording to answer with - switching between them looks like forecast revisions
+    void setVariant(int variant) {
+        this.variant = Math.floorMod(variant, generation.length);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new AbstractClientHttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return httpMethod;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders headers) {
+                return new ByteArrayOutputStream();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+                int current = variant;
+                byte[] body = responses.computeIfAbsent(current + " " + uri.getPath(), key -> replay(uri.getPath(), current));
+                return ok(body);
+            }
+        };
+    }
+
+    // Path looks like /generation/2024-01-15T00:00Z/2024-01-16T00:00Z (or /intensity/...)
+    private byte[] replay(String path, int current) {
+        String[] parts = path.split("/");
+        OffsetDateTime from = OffsetDateTime.parse(parts[parts.length - 2]);
+        OffsetDateTime to = OffsetDateTime.parse(parts[parts.length - 1]);
+        JsonNode recorded = path.contains("/intensity/") ? intensity : generation[current];
+
+        ArrayNode recordedData = (ArrayNode) recorded.path("data");
+        OffsetDateTime recordedStart = OffsetDateTime.parse(recordedData.get(0).path("from").asText());
+        long dayCount = Math.max(1, Math.round(Duration.between(from, to).toMinutes() / 1440.0));
+
+        ObjectNode answer = objectMapper.createObjectNode();
+        ArrayNode data = answer.putArray("data");
+        for (int day = 0; day < dayCount; day++) {
+            Duration shift = Duration.between(recordedStart, from.plusDays(day));
+            for (JsonNode interval : recordedData) {
+                ObjectNode copy = interval.deepCopy();
+                copy.put("from", shifted(interval.path("from").asText(), shift));
+                copy.put("to", shifted(interval.path("to").asText(), shift));
+                data.add(copy);
+            }
+        }
+
+        try {
+            return objectMapper.writeValueAsBytes(answer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String shifted(String time, Duration shift) {
+        return OffsetDateTime.parse(time).plus(shift).withOffsetSameInstant(ZoneOffset.UTC).format(API_FORMAT);
+    }
+
+    private static ClientHttpResponse ok(byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(body.length);
+        return new ClientHttpResponse() {
+            @Override
+            public HttpStatusCode getStatusCode() {
+                return HttpStatus.OK;
+            }
+
+            @Override
+            public String getStatusText() {
+                return "OK";
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.energy.mix.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Writes every finished span (observation) of a sampled request as one log line, so we can see
+// where the time goes without any tracing collector. Send logger "energy.tracing" to its own file
+// with logging.* settings if needed.
+// Sampling is decided once per trace at its root span; child spans follow that decision, and spans
+// of unsampled traces cost only one small object.
+@Component
+public class SpanLogHandler implements ObservationHandler<Observation.Context> {
+
+    private static final Logger log = LoggerFactory.getLogger("energy.tracing");
+
+    // Ids and timing of one span, kept in the observation's context
+    record Span(String traceId, String spanId, boolean sampled, long startNanos) {}
+
+    private static final Span NOT_SAMPLED = new Span("", "", false, 0);
+
+    private final double sampleRate;
+
+    public SpanLogHandler(@Value("${energy.tracing.sample-rate:0.1}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        Span parent = parentSpan(context);
+        boolean sampled = parent != null ? parent.sampled() : ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!sampled) {
+            context.put(Span.class, NOT_SAMPLED);
+            return;
+        }
+        String traceId = parent != null ? parent.traceId() : newId() + newId();
+        context.put(Span.class, new Span(traceId, newId(), true, System.nanoTime()));
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        Span span = context.get(Span.class);
+        if (span == null || !span.sampled()) {
+            return;
+        }
+        Span parent = parentSpan(context);
+
+        StringBuilder line = new StringBuilder(160)
+            .append("span name=").append(context.getName())
+            .append(" trace=").append(span.traceId())
+            .append(" id=").append(span.spanId())
+            .append(" parent=").append(parent != null ? parent.spanId() : "-")
+            .append(" thread=").append(Thread.currentThread().getName())
+            .append(" duration_ms=").append(millis(System.nanoTime() - span.startNanos()));
+        for (KeyValue keyValue : context.getAllKeyValues()) {
+            line.append(' ').append(keyValue.getKey()).append('=').append(keyValue.getValue());
+        }
+        if (context.getError() != null) {
+            line.append(" error=\"").append(context.getError().getMessage()).append('"');
+        }
+        log.info(line.toString());
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    private static Span parentSpan(Observation.Context context) {
+        var parent = context.getParentObservation();
+        return parent == null ? null : parent.getContextView().get(Span.class);
+    }
+
+    // Always with a dot (Locale.ROOT): with the JVM's locale a pl_PL server would write "1,234",
+    // and that breaks key=value parsing of the log
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String newId() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+}
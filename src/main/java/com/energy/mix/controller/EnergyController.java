@@ -1,13 +1,19 @@
 package com.energy.mix.controller;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.energy.mix.model.EnergyMix;
+import com.energy.mix.service.CleanTaxonomy;
 import com.energy.mix.service.EnergyService;
+import com.energy.mix.service.OptimizationMode;
+import com.energy.mix.service.UpstreamBusyException;
 
 // Main controller - handles web requests
 @RestController
@@ -26,28 +32,90 @@ public class EnergyController {
     }
     
     // Handles GET requests to "/api/energy/mix"
-    // Returns energy mix data for 3 days
+    // Returns energy mix data for 3 days. Which fuels count as clean can be changed with a
+    // named profile (?profile=renewable-only or low-carbon) or a list (?sources=wind,solar,hydro)
     @GetMapping("/mix")
-    public List<EnergyMix> getEnergyMix() {
-        return energyService.getEnergyMixForThreeDays();
+    public ResponseEntity<?> getEnergyMix(@RequestParam(required = false) String profile,
+                                          @RequestParam(required = false) String sources) {
+        try {
+            CleanTaxonomy taxonomy = CleanTaxonomy.fromParams(profile, sources);
+            return ResponseEntity.ok(energyService.getEnergyMixForThreeDays(taxonomy));
+            
+        } catch (IllegalArgumentException e) {
+            // Unknown profile or fuel name
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     // Handles GET requests to "/api/energy/optimal-charging" 
     // Requires "hours" parameter (?hours=3)
+    // Optional "mode": clean (default), intensity or blend (?mode=blend&weight=0.7)
+    // Optional "profile" or "sources" to choose which fuels count as clean, like for /mix
     @GetMapping("/optimal-charging")
-    public ResponseEntity<?> getOptimalCharging(@RequestParam int hours) {
+    public ResponseEntity<?> getOptimalCharging(@RequestParam int hours,
+                                                @RequestParam(defaultValue = "clean") String mode,
+                                                @RequestParam(defaultValue = "0.5") double weight,
+                                                @RequestParam(required = false) String profile,
+                                                @RequestParam(required = false) String sources) {
         try {
             // Validate input - only 1-6 hours allowed
             if (hours < 1 || hours > 6) {
                 return ResponseEntity.badRequest().body("Godziny muszą być między 1 a 6");
             }
             
+            OptimizationMode optimizationMode = OptimizationMode.fromParam(mode);
+            EnergyService.checkWeight(weight);
+            CleanTaxonomy taxonomy = CleanTaxonomy.fromParams(profile, sources);
+            
             // Find best charging time
-            Map<String, Object> result = energyService.findOptimalChargingWindow(hours);
+            Map<String, Object> result = energyService.findOptimalChargingWindow(hours, optimizationMode, weight, taxonomy);
             
             // Return success with result
             return ResponseEntity.ok(result);
             
+        } catch (UpstreamBusyException e) {
+            return serviceBusy(e);
+        } catch (IllegalArgumentException e) {
+            // Handle input errors from service
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // Handle unexpected errors
+            return ResponseEntity.internalServerError().body("Wystąpił błąd serwera: " + e.getMessage());
+        }
+    }
+    
+    // Handles GET requests to "/api/energy/optimal-charging-profile"
+    // For charging that slows down over time: kW for each 30-minute part of the session
+    // (?powerKw=7.4,7.4,7.4,5.0,3.0,1.5)
+    @GetMapping("/optimal-charging-profile")
+    public ResponseEntity<?> getOptimalChargingForProfile(@RequestParam double[] powerKw) {
+        try {
+            return ResponseEntity.ok(energyService.findOptimalChargingWindowForProfile(powerKw));
+            
+        } catch (UpstreamBusyException e) {
+            return serviceBusy(e);
+        } catch (IllegalArgumentException e) {
+            // Handle input errors from service
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // Handle unexpected errors
+            return ResponseEntity.internalServerError().body("Wystąpił błąd serwera: " + e.getMessage());
+        }
+    }
+    
+    // Handles GET requests to "/api/energy/optimal-slots"
+    // Picks the cleanest 30-minute slots before a deadline, they don't have to be in one block
+    // (?slots=6&earliest=2024-01-02T06:00&deadline=2024-01-02T18:00&maxSessions=2)
+    @GetMapping("/optimal-slots")
+    public ResponseEntity<?> getOptimalSlots(@RequestParam int slots,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime earliest,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadline,
+                                             @RequestParam(required = false) Integer maxSessions) {
+        try {
+            return ResponseEntity.ok(energyService.findOptimalChargingSlots(slots, earliest, deadline, maxSessions));
+            
+        } catch (UpstreamBusyException e) {
+            return serviceBusy(e);
         } catch (IllegalArgumentException e) {
             // Handle input errors from service
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -56,4 +124,74 @@ public class EnergyController {
             return ResponseEntity.internalServerError().body("Wystąpił błąd serwera: " + e.getMessage());
         }
     }
+    
+    // Handles GET requests to "/api/energy/scenario-sweep"
+    // Best charging window for every duration / earliest start / deadline combination over the next 2 days
+    // (?minSlots=1&maxSlots=24&stepSlots=2 - durations and grid step in 30-minute intervals)
+    @GetMapping("/scenario-sweep")
+    public ResponseEntity<?> getScenarioSweep(@RequestParam(defaultValue = "1") int minSlots,
+                                              @RequestParam(defaultValue = "24") int maxSlots,
+                                              @RequestParam(defaultValue = "2") int stepSlots) {
+        try {
+            return ResponseEntity.ok(energyService.sweepChargingScenarios(minSlots, maxSlots, stepSlots));
+            
+        } catch (UpstreamBusyException e) {
+            return serviceBusy(e);
+        } catch (IllegalArgumentException e) {
+            // Handle input errors from service
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // Handle unexpected errors
+            return ResponseEntity.internalServerError().body("Wystąpił błąd serwera: " + e.getMessage());
+        }
+    }
+    
+    // Handles GET requests to "/api/energy/statistics"
+    // Min, max, std and p10/p50/p90 for every fuel plus clean % per day
+    // Optional range of UK days (?from=2024-01-01&to=2024-03-31), by default today + next 2 days
+    @GetMapping("/statistics")
+    public ResponseEntity<?> getStatistics(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(energyService.getFuelStatistics(from, to));
+            
+        } catch (UpstreamBusyException e) {
+            return serviceBusy(e);
+        } catch (IllegalArgumentException e) {
+            // Handle input errors from service
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // Handle unexpected errors
+            return ResponseEntity.internalServerError().body("Wystąpił błąd serwera: " + e.getMessage());
+        }
+    }
+    
+    // Handles GET requests to "/api/energy/heatmap"
+    // Clean energy % as a grid of UK days x local hours, with labels for both axes
+    // (?from=2024-01-01&to=2024-03-31&resolution=half-hour), by default today + next 2 days by hour
+    @GetMapping("/heatmap")
+    public ResponseEntity<?> getHeatmap(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        @RequestParam(defaultValue = "hour") String resolution) {
+        try {
+            return ResponseEntity.ok(energyService.getCleanEnergyHeatmap(from, to, resolution));
+            
+        } catch (UpstreamBusyException e) {
+            return serviceBusy(e);
+        } catch (IllegalArgumentException e) {
+            // Handle input errors from service
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // Handle unexpected errors
+            return ResponseEntity.internalServerError().body("Wystąpił błąd serwera: " + e.getMessage());
+        }
+    }
+    
+    // Too many calls to the energy API at once - tell the client to come back later (HTTP 503)
+    @ExceptionHandler(UpstreamBusyException.class)
+    public ResponseEntity<String> serviceBusy(UpstreamBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(e.getMessage());
+    }
 }
\ No newline at end of file
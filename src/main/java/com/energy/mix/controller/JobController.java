@@ -0,0 +1,126 @@
+package com.energy.mix.controller;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.energy.mix.service.EnergyService;
+import com.energy.mix.service.JobService;
+import com.energy.mix.service.JobQueueFullException;
+
+// Long optimizations as background jobs: submit, then poll the status and fetch the result.
+// All URLs start with "/api/energy/jobs"
+@RestController
+@RequestMapping("/api/energy/jobs")
+@CrossOrigin(origins = "*")
+public class JobController {
+    
+    private final JobService jobService;
+    private final EnergyService energyService;
+    
+    public JobController(JobService jobService, EnergyService energyService) {
+        this.jobService = jobService;
+        this.energyService = energyService;
+    }
+    
+    // Handles POST requests to "/api/energy/jobs/scenario-sweep"
+    // Same parameters as GET /api/energy/scenario-sweep
+    @PostMapping("/scenario-sweep")
+    public ResponseEntity<?> submitScenarioSweep(@RequestParam(defaultValue = "1") int minSlots,
+                                                 @RequestParam(defaultValue = "24") int maxSlots,
+                                                 @RequestParam(defaultValue = "2") int stepSlots) {
+        return submit("scenario-sweep", () -> EnergyService.checkSweep(minSlots, maxSlots, stepSlots),
+            () -> energyService.sweepChargingScenarios(minSlots, maxSlots, stepSlots));
+    }
+    
+    // Handles POST requests to "/api/energy/jobs/statistics"
+    // Same parameters as GET /api/energy/statistics
+    @PostMapping("/statistics")
+    public ResponseEntity<?> submitStatistics(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return submit("statistics", () -> EnergyService.checkRange(from, to),
+            () -> energyService.getFuelStatistics(from, to));
+    }
+    
+    // Handles POST requests to "/api/energy/jobs/heatmap"
+    // Same parameters as GET /api/energy/heatmap
+    @PostMapping("/heatmap")
+    public ResponseEntity<?> submitHeatmap(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                           @RequestParam(defaultValue = "hour") String resolution) {
+        return submit("heatmap", () -> {
+                EnergyService.slotsPerCell(resolution);
+                EnergyService.checkRange(from, to);
+            },
+            () -> energyService.getCleanEnergyHeatmap(from, to, resolution));
+    }
+    
+    // Handles GET requests to "/api/energy/jobs/{id}" - status of the job
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getStatus(@PathVariable String id) {
+        Map<String, Object> status = jobService.getStatus(id);
+        if (status == null) {
+            return notFound(id);
+        }
+        return ResponseEntity.ok(status);
+    }
+    
+    // Handles GET requests to "/api/energy/jobs/{id}/result"
+    // 409 while the job is still running (or if it failed / was cancelled)
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> getResult(@PathVariable String id) {
+        try {
+            Object result = jobService.getResult(id);
+            if (result == null) {
+                return notFound(id);
+            }
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    // Handles DELETE requests to "/api/energy/jobs/{id}" - cancels the job
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable String id) {
+        Map<String, Object> status = jobService.cancel(id);
+        if (status == null) {
+            return notFound(id);
+        }
+        return ResponseEntity.ok(status);
+    }
+    
+    // Checks the parameters first (400 right away instead of a job that can only fail),
+    // then queues the work and answers 202 with the job status and where to poll it
+    private ResponseEntity<?> submit(String type, Runnable validation, Supplier<Object> work) {
+        try {
+            validation.run();
+            Map<String, Object> status = jobService.submit(type, work);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/energy/jobs/" + status.get("jobId")))
+                .body(status);
+            
+        } catch (IllegalArgumentException e) {
+            // Wrong parameters (HTTP 400)
+            return ResponseEntity.badRequest().body(e.getMessage());
+            
+        } catch (JobQueueFullException e) {
+            // Queue is full - come back later (HTTP 503)
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+        }
+    }
+    
+    private ResponseEntity<String> notFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Nie znaleziono zadania: " + id);
+    }
+}
@@ -0,0 +1,9 @@
+package com.energy.mix.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+// Average energy mix of one day.
+// In JSON: {"date": ..., "averageMix": {...}, "cleanEnergyPercentage": ...}
+@JsonSerialize(using = DailyMixSerializer.class)
+public record DailyMix(String date, FuelMix averageMix, double cleanEnergyPercentage) {
+}
@@ -0,0 +1,31 @@
+package com.energy.mix.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes a DailyMix field by field, in the order the /mix answer has always had
+public class DailyMixSerializer extends StdSerializer<DailyMix> {
+
+    public DailyMixSerializer() {
+        super(DailyMix.class);
+    }
+
+    @Override
+    public void serialize(DailyMix mix, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("date", mix.date());
+        generator.writeFieldName("averageMix");
+        if (mix.averageMix() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject();
+            FuelMixSerializer.writeFields(mix.averageMix(), generator);
+            generator.writeEndObject();
+        }
+        generator.writeNumberField("cleanEnergyPercentage", mix.cleanEnergyPercentage());
+        generator.writeEndObject();
+    }
+}
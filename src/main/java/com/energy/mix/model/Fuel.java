@@ -0,0 +1,43 @@
+package com.energy.mix.model;
+
+// Energy sources the Carbon Intensity API reports in its generation mix.
+// The ordinal is used as an index into plain arrays (see FuelMix).
+public enum Fuel {
+    BIOMASS("biomass"),
+    COAL("coal"),
+    IMPORTS("imports"),
+    GAS("gas"),
+    NUCLEAR("nuclear"),
+    OTHER("other"),
+    HYDRO("hydro"),
+    SOLAR("solar"),
+    WIND("wind");
+
+    private static final Fuel[] ALL = values();
+
+    private final String apiName;
+
+    Fuel(String apiName) {
+        this.apiName = apiName;
+    }
+
+    // Name used by the API and in our JSON, e.g. "wind"
+    public String getApiName() {
+        return apiName;
+    }
+
+    // Fuel with the given API name, or null when the API sends something we don't know
+    public static Fuel fromApiName(String name) {
+        for (Fuel fuel : ALL) {
+            if (fuel.apiName.equals(name)) {
+                return fuel;
+            }
+        }
+        return null;
+    }
+
+    // Same as values(), without copying the array every time
+    static Fuel[] all() {
+        return ALL;
+    }
+}
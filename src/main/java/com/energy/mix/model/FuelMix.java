@@ -0,0 +1,64 @@
+package com.energy.mix.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+// Percentage of each fuel, kept in one double[] indexed by Fuel ordinal (NaN = fuel not reported).
+// Compared to a HashMap<String, Double> there are no entries, keys or boxed numbers.
+// The array is copied in and never handed out, so a mix can be shared between threads freely.
+// In JSON it is the same object as before: {"wind": 30.0, "gas": 70.0, ...}
+@JsonSerialize(using = FuelMixSerializer.class)
+public final class FuelMix {
+
+    private final double[] percentages;
+
+    // percentages[fuel.ordinal()], shorter arrays mean the remaining fuels are missing
+    public FuelMix(double[] percentages) {
+        this.percentages = new double[Fuel.all().length];
+        Arrays.fill(this.percentages, Double.NaN);
+        System.arraycopy(percentages, 0, this.percentages, 0, Math.min(percentages.length, this.percentages.length));
+    }
+
+    public boolean has(Fuel fuel) {
+        return !Double.isNaN(percentages[fuel.ordinal()]);
+    }
+
+    // Percentage of the fuel, or NaN when it wasn't reported
+    public double get(Fuel fuel) {
+        return percentages[fuel.ordinal()];
+    }
+
+    // Number of fuels reported
+    public int size() {
+        int size = 0;
+        for (double percentage : percentages) {
+            if (!Double.isNaN(percentage)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof FuelMix mix && Arrays.equals(percentages, mix.percentages);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(percentages);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner result = new StringJoiner(", ", "{", "}");
+        for (Fuel fuel : Fuel.all()) {
+            if (has(fuel)) {
+                result.add(fuel.getApiName() + "=" + percentages[fuel.ordinal()]);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.energy.mix.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes a FuelMix as {"biomass": 15.0, "wind": 20.0, ...} straight from its doubles,
+// without building a map or boxing anything
+public class FuelMixSerializer extends StdSerializer<FuelMix> {
+
+    public FuelMixSerializer() {
+        super(FuelMix.class);
+    }
+
+    @Override
+    public void serialize(FuelMix mix, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        writeFields(mix, generator);
+        generator.writeEndObject();
+    }
+
+    // Only the fields, so other serializers can write a mix without a lookup
+    static void writeFields(FuelMix mix, JsonGenerator generator) throws IOException {
+        for (Fuel fuel : Fuel.all()) {
+            if (mix.has(fuel)) {
+                generator.writeNumberField(fuel.getApiName(), mix.get(fuel));
+            }
+        }
+    }
+}
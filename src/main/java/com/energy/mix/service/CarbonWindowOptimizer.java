@@ -0,0 +1,107 @@
+package com.energy.mix.service;
+
+import java.util.Arrays;
+
+// Finds charging windows using the carbon intensity forecast next to the generation mix.
+// Both series are joined by interval start into plain arrays, so scoring is just prefix sums.
+final class CarbonWindowOptimizer {
+
+    private CarbonWindowOptimizer() {}
+
+    // Generation and intensity for the same intervals, position by position
+    record JoinedSeries(int[] startSlots, double[] clean, double[] intensity) {
+        int size() { return startSlots.length; }
+    }
+
+    // Best window found: where it starts and its averages
+    record Window(int start, double averageClean, double averageIntensity) {}
+
+    // Walks both sorted series once and keeps the intervals that exist in both
+    static JoinedSeries join(IntervalSeries generation, int[] intensitySlots, double[] intensity) {
+        int[] generationSlots = generation.startSlots();
+        int size = Math.min(generationSlots.length, intensitySlots.length);
+        int[] joinedSlots = new int[size];
+        double[] joinedClean = new double[size];
+        double[] joinedIntensity = new double[size];
+
+        int g = 0;
+        int c = 0;
+        int count = 0;
+        while (g < generationSlots.length && c < intensitySlots.length) {
+            if (generationSlots[g] == intensitySlots[c]) {
+                joinedSlots[count] = generationSlots[g];
+                joinedClean[count] = generation.clean()[g];
+                joinedIntensity[count] = intensity[c];
+                count++;
+                g++;
+                c++;
+            } else if (generationSlots[g] < intensitySlots[c]) {
+                g++;
+            } else {
+                c++;
+            }
+        }
+
+        if (count < size) {
+            joinedSlots = Arrays.copyOf(joinedSlots, count);
+            joinedClean = Arrays.copyOf(joinedClean, count);
+            joinedIntensity = Arrays.copyOf(joinedIntensity, count);
+        }
+        return new JoinedSeries(joinedSlots, joinedClean, joinedIntensity);
+    }
+
+    // Finds the best consecutive window for the given mode.
+    // For BLEND, cleanWeight is how much clean % counts (0..1), the rest goes to low intensity.
+    static Window findBestWindow(JoinedSeries series, int intervalsNeeded, OptimizationMode mode, double cleanWeight) {
+        int n = series.size();
+        if (n < intervalsNeeded) {
+            throw new RuntimeException("Za mało danych do znalezienia okna");
+        }
+
+        double[] cleanPrefix = prefixSums(series.clean());
+        double[] intensityPrefix = prefixSums(series.intensity());
+
+        // Intensity range of the horizon, used to put intensity on the same 0..1 scale as clean %
+        double minIntensity = Double.MAX_VALUE;
+        double maxIntensity = -Double.MAX_VALUE;
+        for (double value : series.intensity()) {
+            minIntensity = Math.min(minIntensity, value);
+            maxIntensity = Math.max(maxIntensity, value);
+        }
+        double intensityRange = maxIntensity - minIntensity;
+
+        int bestStart = -1;
+        double bestScore = -Double.MAX_VALUE;
+        for (int i = 0; i <= n - intervalsNeeded; i++) {
+            double averageClean = (cleanPrefix[i + intervalsNeeded] - cleanPrefix[i]) / intervalsNeeded;
+            double averageIntensity = (intensityPrefix[i + intervalsNeeded] - intensityPrefix[i]) / intervalsNeeded;
+
+            double score;
+            switch (mode) {
+                case CLEAN -> score = averageClean;
+                case INTENSITY -> score = -averageIntensity;
+                default -> {
+                    double lowIntensity = intensityRange > 0 ? 1 - (averageIntensity - minIntensity) / intensityRange : 1;
+                    score = cleanWeight * averageClean / 100.0 + (1 - cleanWeight) * lowIntensity;
+                }
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestStart = i;
+            }
+        }
+
+        double averageClean = (cleanPrefix[bestStart + intervalsNeeded] - cleanPrefix[bestStart]) / intervalsNeeded;
+        double averageIntensity = (intensityPrefix[bestStart + intervalsNeeded] - intensityPrefix[bestStart]) / intervalsNeeded;
+        return new Window(bestStart, averageClean, averageIntensity);
+    }
+
+    private static double[] prefixSums(double[] values) {
+        double[] prefix = new double[values.length + 1];
+        for (int i = 0; i < values.length; i++) {
+            prefix[i + 1] = prefix[i] + values[i];
+        }
+        return prefix;
+    }
+}
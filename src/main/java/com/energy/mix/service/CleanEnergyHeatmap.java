@@ -0,0 +1,73 @@
+package com.energy.mix.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Clean energy % as a grid: one row per UK day, one column per hour (or half-hour) of local time.
+// Values are averaged into flat primitive arrays first and only turned into rows at the end,
+// so a 90-day grid is a few thousand numbers instead of a list of objects.
+final class CleanEnergyHeatmap {
+
+    private static final int SLOTS_PER_DAY = 48;
+
+    private CleanEnergyHeatmap() {
+    }
+
+    // slotsPerCell: 2 for hours, 1 for half-hours
+    static Map<String, Object> build(List<LocalDate> dates, List<IntervalSeries> days, int slotsPerCell) {
+        int columns = SLOTS_PER_DAY / slotsPerCell;
+        double[] sums = new double[dates.size() * columns];
+        int[] counts = new int[dates.size() * columns];
+
+        for (int row = 0; row < dates.size(); row++) {
+            LocalDate date = dates.get(row);
+            IntervalSeries series = days.get(row);
+            int dayStart = UpstreamTime.dayStartSlot(date);
+            // Only days when the clocks change need the real local time of each slot
+            boolean regularDay = UpstreamTime.slotsInDay(date) == SLOTS_PER_DAY;
+
+            for (int i = 0; i < series.size(); i++) {
+                int slot = series.startSlots()[i];
+                int localSlot = regularDay ? slot - dayStart : UpstreamTime.localSlotOfDay(slot);
+                if (localSlot < 0 || localSlot >= SLOTS_PER_DAY) {
+                    continue;
+                }
+                int cell = row * columns + localSlot / slotsPerCell;
+                sums[cell] += series.clean()[i];
+                counts[cell]++;
+            }
+        }
+
+        // Cells without data (missing hour in March, days with no forecast yet) stay null
+        List<Double[]> values = new ArrayList<>(dates.size());
+        for (int row = 0; row < dates.size(); row++) {
+            Double[] cells = new Double[columns];
+            for (int column = 0; column < columns; column++) {
+                int cell = row * columns + column;
+                if (counts[cell] > 0) {
+                    cells[column] = Math.round(sums[cell] / counts[cell] * 10.0) / 10.0;
+                }
+            }
+            values.add(cells);
+        }
+
+        List<String> dayLabels = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            dayLabels.add(date.toString());
+        }
+        List<String> timeLabels = new ArrayList<>(columns);
+        for (int column = 0; column < columns; column++) {
+            int minutes = column * slotsPerCell * UpstreamTime.MINUTES_PER_SLOT;
+            timeLabels.add(String.format("%02d:%02d", minutes / 60, minutes % 60));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("days", dayLabels);
+        result.put("times", timeLabels);
+        result.put("values", values);
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package com.energy.mix.service;
+
+import com.energy.mix.model.Fuel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Which fuels count as "clean". Not everybody agrees on biomass or nuclear, so callers can pick
+// a named profile or list the fuels themselves. The set is kept as a bitmask (bit = Fuel ordinal),
+// so checking a fuel is one AND instead of a search through a list of names.
+public record CleanTaxonomy(String name, int mask) {
+
+    // What we have always counted as clean
+    public static final CleanTaxonomy DEFAULT =
+        new CleanTaxonomy("default", maskOf(Fuel.BIOMASS, Fuel.NUCLEAR, Fuel.HYDRO, Fuel.WIND, Fuel.SOLAR));
+
+    private static final Map<String, CleanTaxonomy> PROFILES = new LinkedHashMap<>();
+
+    static {
+        PROFILES.put(DEFAULT.name(), DEFAULT);
+        // Only sources that renew themselves - no nuclear
+        PROFILES.put("renewable-only", new CleanTaxonomy("renewable-only",
+            maskOf(Fuel.BIOMASS, Fuel.HYDRO, Fuel.WIND, Fuel.SOLAR)));
+        // Low emissions when generating - nuclear yes, burning biomass no
+        PROFILES.put("low-carbon", new CleanTaxonomy("low-carbon",
+            maskOf(Fuel.NUCLEAR, Fuel.HYDRO, Fuel.WIND, Fuel.SOLAR)));
+    }
+
+    // Taxonomy from request parameters: a profile name (?profile=low-carbon) or a list of fuels
+    // (?sources=wind,solar,hydro). Neither gives DEFAULT
+    public static CleanTaxonomy fromParams(String profile, String sources) {
+        if (profile != null && sources != null) {
+            throw new IllegalArgumentException("Podaj albo profile, albo sources, nie oba naraz");
+        }
+        if (profile != null) {
+            CleanTaxonomy taxonomy = PROFILES.get(profile.trim().toLowerCase());
+            if (taxonomy == null) {
+                throw new IllegalArgumentException("Nieznany profil: " + profile + " (dostępne: " + String.join(", ", PROFILES.keySet()) + ")");
+            }
+            return taxonomy;
+        }
+        if (sources == null) {
+            return DEFAULT;
+        }
+
+        int mask = 0;
+        for (String name : sources.split(",")) {
+            Fuel fuel = Fuel.fromApiName(name.trim().toLowerCase());
+            if (fuel == null) {
+                throw new IllegalArgumentException("Nieznane źródło energii: " + name.trim());
+            }
+            mask |= 1 << fuel.ordinal();
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("Lista sources nie może być pusta");
+        }
+        // The same set as a named profile (e.g. the default one) shares its cached series
+        for (CleanTaxonomy taxonomy : PROFILES.values()) {
+            if (taxonomy.mask == mask) {
+                return taxonomy;
+            }
+        }
+        return new CleanTaxonomy(sources, mask);
+    }
+
+    // True for the named profiles, false for a caller's own list of fuels
+    boolean isProfile() {
+        return equals(PROFILES.get(name));
+    }
+
+    boolean includes(Fuel fuel) {
+        return (mask & (1 << fuel.ordinal())) != 0;
+    }
+
+    // Sum of the clean fuels' percentages; byFuel is indexed by Fuel ordinal
+    double sum(double[] byFuel) {
+        double total = 0;
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            total += byFuel[Integer.numberOfTrailingZeros(bits)];
+        }
+        return total;
+    }
+
+    static int maskOf(Fuel... fuels) {
+        int mask = 0;
+        for (Fuel fuel : fuels) {
+            mask |= 1 << fuel.ordinal();
+        }
+        return mask;
+    }
+}
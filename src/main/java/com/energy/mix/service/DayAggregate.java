@@ -0,0 +1,286 @@
+package com.energy.mix.service;
+
+import com.energy.mix.model.DailyMix;
+import com.energy.mix.model.Fuel;
+import com.energy.mix.model.FuelMix;
+
+import java.util.*;
+
+// Keeps the parsed state of one day between refreshes.
+// Each refresh only changes a few intervals (the new actual one plus forecast revisions),
+// so instead of recomputing everything we only adjust the totals for intervals that changed.
+class DayAggregate {
+
+    private static final Fuel[] FUELS = Fuel.values();
+
+    // One 30-minute interval exactly as the API sent it (fuels we don't know are left out)
+    static class IntervalSnapshot {
+        private final int startSlot;        // see UpstreamTime
+        private final int endSlot;
+        private final double[] byFuel;      // percentage by Fuel ordinal, 0 when missing
+        private final int reported;         // bitmask of the fuels the API reported (bit = Fuel ordinal)
+        private final double cleanEnergy;   // rounded clean energy % for this interval (default taxonomy)
+
+        // byFuel is indexed by Fuel ordinal with NaN for fuels that weren't reported.
+        // The array is taken over, not copied
+        IntervalSnapshot(int startSlot, int endSlot, double[] byFuel) {
+            this.startSlot = startSlot;
+            this.endSlot = endSlot;
+            int mask = 0;
+            for (int i = 0; i < byFuel.length; i++) {
+                if (Double.isNaN(byFuel[i])) {
+                    byFuel[i] = 0;
+                } else {
+                    mask |= 1 << i;
+                }
+            }
+            this.byFuel = byFuel;
+            this.reported = mask;
+            this.cleanEnergy = getCleanEnergy(CleanTaxonomy.DEFAULT);
+        }
+
+        int getStartSlot() { return startSlot; }
+        int getEndSlot() { return endSlot; }
+        double getCleanEnergy() { return cleanEnergy; }
+
+        // Which fuels were reported, and the percentage of one of them
+        int getReported() { return reported; }
+        double get(int fuelOrdinal) { return byFuel[fuelOrdinal]; }
+
+        // Rounded clean energy % when only the taxonomy's fuels count as clean
+        double getCleanEnergy(CleanTaxonomy taxonomy) {
+            return Math.round(taxonomy.sum(byFuel) * 10.0) / 10.0;
+        }
+
+        // Same interval with the same numbers - nothing to update
+        boolean sameAs(IntervalSnapshot other) {
+            return endSlot == other.endSlot && reported == other.reported && Arrays.equals(byFuel, other.byFuel);
+        }
+    }
+
+    // Intervals in time order, keyed by their start slot
+    private final TreeMap<Integer, IntervalSnapshot> intervals = new TreeMap<>();
+
+    // Running totals for each energy source, indexed by Fuel ordinal
+    private final double[] sums = new double[FUELS.length];
+    private final int[] counts = new int[FUELS.length];
+
+    // Position of each interval, and the day as arrays with prefix sums for the window optimizer.
+    // A change always builds new arrays, so a series handed out earlier never changes under the caller
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private IntervalSeries series = IntervalSeries.EMPTY;
+
+    // Series for other clean taxonomies (key = fuel bitmask), built on first use and dropped on any change
+    private final Map<Integer, IntervalSeries> taxonomySeries = new HashMap<>();
+
+    // Rounded average of each fuel (NaN when missing), and the result for the default taxonomy.
+    // Both are built from the totals and rebuilt only when something changed
+    private double[] averages;
+    private DailyMix cachedMix;
+
+    // Last cached bytes applied (see GenerationCodec), so the same cache entry isn't decoded twice
+    private byte[] lastEncoded;
+
+    // Applies a day read from the generation cache and returns how many intervals changed
+    synchronized int applyEncoded(byte[] encoded) {
+        if (Arrays.equals(encoded, lastEncoded)) {
+            return 0;
+        }
+        int changed = apply(GenerationCodec.decode(encoded));
+        lastEncoded = encoded;
+        return changed;
+    }
+
+    // Applies a fresh download of the day and returns how many intervals changed
+    synchronized int apply(List<IntervalSnapshot> fresh) {
+        lastEncoded = null;
+        Map<Integer, IntervalSnapshot> freshByStart = new HashMap<>();
+        for (IntervalSnapshot snapshot : fresh) {
+            freshByStart.put(snapshot.getStartSlot(), snapshot);
+        }
+
+        int changed = 0;
+        boolean layoutChanged = false;
+
+        // Intervals that disappeared from the API
+        Iterator<IntervalSnapshot> it = intervals.values().iterator();
+        while (it.hasNext()) {
+            IntervalSnapshot old = it.next();
+            if (!freshByStart.containsKey(old.getStartSlot())) {
+                removeFromTotals(old);
+                it.remove();
+                changed++;
+                layoutChanged = true;
+            }
+        }
+
+        // New or revised intervals - revised ones remembered by position for the prefix sums
+        TreeMap<Integer, IntervalSnapshot> revised = new TreeMap<>();
+        for (IntervalSnapshot snapshot : freshByStart.values()) {
+            IntervalSnapshot old = intervals.get(snapshot.getStartSlot());
+            if (old != null && old.sameAs(snapshot)) {
+                continue;
+            }
+
+            if (old != null) {
+                removeFromTotals(old);
+                revised.put(positions.get(old.getStartSlot()), snapshot);
+            } else {
+                layoutChanged = true;
+            }
+            addToTotals(snapshot);
+            intervals.put(snapshot.getStartSlot(), snapshot);
+            changed++;
+        }
+
+        if (changed == 0 && cachedMix != null) {
+            return 0;
+        }
+
+        if (layoutChanged) {
+            rebuildSeries();
+        } else {
+            updateSeries(revised);
+        }
+
+        cachedMix = null;
+        averages = null;
+        taxonomySeries.clear();
+        return changed;
+    }
+
+    // Average mix for the day, same rounding as the API results we show
+    synchronized DailyMix toDailyMix(String date) {
+        return toDailyMix(date, CleanTaxonomy.DEFAULT);
+    }
+
+    // Same, with the clean share counted by the given taxonomy (only the default one is kept)
+    synchronized DailyMix toDailyMix(String date, CleanTaxonomy taxonomy) {
+        if (taxonomy.mask() != CleanTaxonomy.DEFAULT.mask()) {
+            return buildMix(date, taxonomy);
+        }
+        if (cachedMix == null || !date.equals(cachedMix.date())) {
+            cachedMix = buildMix(date, taxonomy);
+        }
+        return cachedMix;
+    }
+
+    // All intervals of the day in time order, with prefix sums of their clean energy
+    synchronized IntervalSeries getSeries() {
+        return series;
+    }
+
+    // Same, with clean energy counted by the given taxonomy. Built once per taxonomy from the
+    // stored fuel numbers, so a new taxonomy needs no download or parsing
+    synchronized IntervalSeries getSeries(CleanTaxonomy taxonomy) {
+        if (taxonomy.mask() == CleanTaxonomy.DEFAULT.mask()) {
+            return series;
+        }
+        IntervalSeries cached = taxonomySeries.get(taxonomy.mask());
+        if (cached == null) {
+            cached = buildSeries(taxonomy);
+            taxonomySeries.put(taxonomy.mask(), cached);
+        }
+        return cached;
+    }
+
+    // Adds every interval of the day (and the day's clean share) to the statistics
+    synchronized void addTo(FuelStatistics statistics, String date) {
+        for (IntervalSnapshot snapshot : intervals.values()) {
+            for (int bits = snapshot.getReported(); bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                statistics.add(FUELS[i], snapshot.get(i));
+            }
+        }
+        statistics.addDay(date, series);
+    }
+
+    private void addToTotals(IntervalSnapshot snapshot) {
+        for (int bits = snapshot.getReported(); bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            sums[i] += snapshot.get(i);
+            counts[i]++;
+        }
+    }
+
+    private void removeFromTotals(IntervalSnapshot snapshot) {
+        for (int bits = snapshot.getReported(); bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            if (--counts[i] <= 0) {
+                // Fuel is gone from the day - reset it so no rounding error is left behind
+                counts[i] = 0;
+                sums[i] = 0;
+            } else {
+                sums[i] -= snapshot.get(i);
+            }
+        }
+    }
+
+    // Intervals were added or removed, so positions moved - start over
+    private void rebuildSeries() {
+        positions.clear();
+        int[] startSlots = new int[intervals.size()];
+        double[] clean = new double[intervals.size()];
+        double[] cleanPrefix = new double[intervals.size() + 1];
+        int i = 0;
+        for (IntervalSnapshot snapshot : intervals.values()) {
+            positions.put(snapshot.getStartSlot(), i);
+            startSlots[i] = snapshot.getStartSlot();
+            clean[i] = snapshot.getCleanEnergy();
+            cleanPrefix[i + 1] = cleanPrefix[i] + clean[i];
+            i++;
+        }
+        series = new IntervalSeries(startSlots, clean, cleanPrefix);
+    }
+
+    private DailyMix buildMix(String date, CleanTaxonomy taxonomy) {
+        if (averages == null) {
+            averages = new double[FUELS.length];
+            for (int i = 0; i < FUELS.length; i++) {
+                averages[i] = counts[i] == 0 ? Double.NaN : Math.round(sums[i] / counts[i] * 10.0) / 10.0;
+            }
+        }
+
+        double cleanEnergyTotal = 0;
+        for (Fuel fuel : FUELS) {
+            if (taxonomy.includes(fuel) && counts[fuel.ordinal()] > 0) {
+                cleanEnergyTotal += averages[fuel.ordinal()];
+            }
+        }
+        return new DailyMix(date, new FuelMix(averages), Math.round(cleanEnergyTotal * 10.0) / 10.0);
+    }
+
+    private IntervalSeries buildSeries(CleanTaxonomy taxonomy) {
+        int[] startSlots = series.startSlots();
+        double[] clean = new double[startSlots.length];
+        double[] cleanPrefix = new double[startSlots.length + 1];
+        for (int i = 0; i < startSlots.length; i++) {
+            clean[i] = intervals.get(startSlots[i]).getCleanEnergy(taxonomy);
+            cleanPrefix[i + 1] = cleanPrefix[i] + clean[i];
+        }
+        return new IntervalSeries(startSlots, clean, cleanPrefix);
+    }
+
+    // Only values changed - shift the prefix sums from the first changed position onwards
+    private void updateSeries(TreeMap<Integer, IntervalSnapshot> revised) {
+        if (revised.isEmpty()) {
+            return;
+        }
+        double[] clean = series.clean().clone();
+        double[] cleanPrefix = series.cleanPrefix().clone();
+
+        double offset = 0;
+        Iterator<Map.Entry<Integer, IntervalSnapshot>> it = revised.entrySet().iterator();
+        Map.Entry<Integer, IntervalSnapshot> next = it.next();
+        for (int i = next.getKey(); i < clean.length; i++) {
+            if (next != null && next.getKey() == i) {
+                double newClean = next.getValue().getCleanEnergy();
+                offset += newClean - clean[i];
+                clean[i] = newClean;
+                next = it.hasNext() ? it.next() : null;
+            }
+            cleanPrefix[i + 1] += offset;
+        }
+        series = new IntervalSeries(series.startSlots(), clean, cleanPrefix);
+    }
+}
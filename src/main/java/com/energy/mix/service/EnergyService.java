@@ -1,7 +1,10 @@
 package com.energy.mix.service;
 
-import com.energy.mix.model.EnergyInterval;
-import com.energy.mix.model.EnergyMix;
+import com.energy.mix.cache.GenerationCache;
+import com.energy.mix.model.DailyMix;
+import com.energy.mix.model.Fuel;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -9,200 +12,416 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class EnergyService {
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final UpstreamBulkhead upstreamBulkhead;
+    private final UpstreamCallPolicy upstreamCallPolicy;
+    private final GenerationCache generationCache;
+    private final ObservationRegistry observationRegistry;
     
-    public EnergyService(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    // How often we look at the cache while another replica is downloading the same day
+    private static final long LEASE_POLL_MS = 50;
+    
+    // Longest range for statistics and the heatmap - one year (a leap one too)
+    private static final int MAX_RANGE_DAYS = 366;
+    
+    // Longest charging profile - the whole 2-day horizon
+    private static final int MAX_PROFILE_SLOTS = 96;
+    
+    // How many days of a statistics or heatmap range we download at the same time.
+    // Well below the bulkhead limit, so a long range leaves room for the live requests
+    private static final int RANGE_FETCH_PARALLELISM = 4;
+    
+    private static final Fuel[] FUELS = Fuel.values();
+    
+    // Last known state of each day, updated in place on every refresh
+    private final Map<LocalDate, DayAggregate> days = new ConcurrentHashMap<>();
+    
+    // Days before yesterday don't change any more, so once loaded they are kept as they are.
+    // The least recently used ones go first; a whole year range still fits
+    private final Map<LocalDate, DayAggregate> history = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, DayAggregate> eldest) {
+                return size() > MAX_RANGE_DAYS;
+            }
+        });
+    
+    // Runs independent API calls at the same time (they mostly wait on the network)
+    private final ExecutorService upstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    public EnergyService(RestTemplate restTemplate, ObjectMapper objectMapper, UpstreamBulkhead upstreamBulkhead,
+                         UpstreamCallPolicy upstreamCallPolicy, GenerationCache generationCache,
+                         ObservationRegistry observationRegistry) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.upstreamBulkhead = upstreamBulkhead;
+        this.upstreamCallPolicy = upstreamCallPolicy;
+        this.generationCache = generationCache;
+        this.observationRegistry = observationRegistry;
     }
     
-    // Gets energy mix for today + next 2 days
-    public List<EnergyMix> getEnergyMixForThreeDays() {
-        List<EnergyMix> result = new ArrayList<>();
-        
-        for (int i = 0; i < 3; i++) {
-            LocalDate date = LocalDate.now().plusDays(i);
-            EnergyMix mix = getEnergyMixForDate(date);
-            result.add(mix);
-        }
-        
-        return result;
+    // Gets energy mix for today + next 2 days (UK days, see UpstreamTime)
+    public List<DailyMix> getEnergyMixForThreeDays() {
+        return getEnergyMixForThreeDays(CleanTaxonomy.DEFAULT);
     }
     
-    // Gets energy data for one specific day from the API
-    private EnergyMix getEnergyMixForDate(LocalDate date) {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'");
-            String from = date.atStartOfDay().format(formatter);
-            String to = date.plusDays(1).atStartOfDay().format(formatter);
+    // Same, with the clean energy share counted by the caller's choice of clean fuels
+    public List<DailyMix> getEnergyMixForThreeDays(CleanTaxonomy taxonomy) {
+        return traced("energy.mix", span -> {
+            span.lowCardinalityKeyValue("taxonomy", taxonomyTag(taxonomy));
+            List<CompletableFuture<DailyMix>> days = new ArrayList<>();
+            LocalDate today = UpstreamTime.today();
             
-            String url = "https://api.carbonintensity.org.uk/generation/" + from + "/" + to;
-            String response = restTemplate.getForObject(url, String.class);
+            // The days don't depend on each other, so one slow answer shouldn't hold up the others
+            for (int i = 0; i < 3; i++) {
+                LocalDate date = today.plusDays(i);
+                days.add(async(() -> getEnergyMixForDate(date, taxonomy)));
+            }
             
-            return parseEnergyDataFromResponse(date.toString(), response);
+            List<DailyMix> result = new ArrayList<>();
+            for (CompletableFuture<DailyMix> day : days) {
+                result.add(await(day));
+            }
+            return result;
+        });
+    }
+    
+    // Gets energy data for one specific day from the API
+    private DailyMix getEnergyMixForDate(LocalDate date, CleanTaxonomy taxonomy) {
+        try {
+            return refreshDay(date).toDailyMix(date.toString(), taxonomy);
             
+        } catch (UpstreamBusyException e) {
+            // Too busy - let the controller answer 503 instead of a generic error
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Błąd pobierania danych z API dla daty: " + date, e);
         }
     }
     
-    // Converts JSON API response into EnergyMix object
-    private EnergyMix parseEnergyDataFromResponse(String date, String jsonResponse) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-            JsonNode dataArray = root.path("data");
-            
-            // Track totals for each energy source
-            Map<String, Double> sums = new HashMap<>();
-            Map<String, Integer> counts = new HashMap<>();
+    // Min, max, standard deviation and percentiles of every fuel, plus the clean share of each day,
+    // for the days from..to (inclusive, UK days). Defaults to today + next 2 days
+    public Map<String, Object> getFuelStatistics(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        LocalDate start = from != null ? from : UpstreamTime.today();
+        LocalDate end = to != null ? to : start.plusDays(2);
+        
+        // One pass over all intervals, day after day
+        FuelStatistics statistics = new FuelStatistics();
+        List<DayAggregate> range = getDaysForIntervals(start, end);
+        for (int i = 0; i < range.size(); i++) {
+            range.get(i).addTo(statistics, start.plusDays(i).toString());
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", start.toString());
+        result.put("to", end.toString());
+        result.putAll(statistics.toResult());
+        return result;
+    }
+    
+    // Clean energy % by UK day (rows) and local hour or half-hour (columns) for the days from..to.
+    // Defaults to today + next 2 days; resolution is "hour" (default) or "half-hour"
+    public Map<String, Object> getCleanEnergyHeatmap(LocalDate from, LocalDate to, String resolution) {
+        int slotsPerCell = slotsPerCell(resolution);
+        checkRange(from, to);
+        LocalDate start = from != null ? from : UpstreamTime.today();
+        LocalDate end = to != null ? to : start.plusDays(2);
+        
+        List<LocalDate> dates = new ArrayList<>();
+        List<IntervalSeries> days = new ArrayList<>();
+        List<DayAggregate> range = getDaysForIntervals(start, end);
+        for (int i = 0; i < range.size(); i++) {
+            dates.add(start.plusDays(i));
+            days.add(range.get(i).getSeries());
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", start.toString());
+        result.put("to", end.toString());
+        result.put("resolution", slotsPerCell == 2 ? "hour" : "half-hour");
+        result.putAll(CleanEnergyHeatmap.build(dates, days, slotsPerCell));
+        return result;
+    }
+    
+    // Heatmap cell size in half-hours: "hour" (default) or "half-hour".
+    // Public so the job endpoints can check it before queueing a job
+    public static int slotsPerCell(String resolution) {
+        if (resolution == null || resolution.equalsIgnoreCase("hour")) {
+            return 2;
+        } else if (resolution.equalsIgnoreCase("half-hour")) {
+            return 1;
+        }
+        throw new IllegalArgumentException("Nieznana rozdzielczość: " + resolution);
+    }
+    
+    // Checks the weight of the clean share in blend mode. Written so that NaN fails too
+    // (every comparison with NaN is false). Public so the controller can answer 400 before calling us
+    public static void checkWeight(double cleanWeight) {
+        if (!(cleanWeight >= 0 && cleanWeight <= 1)) {
+            throw new IllegalArgumentException("Waga musi być między 0 a 1");
+        }
+    }
+    
+    // Checks that a range of days (missing ends get the same defaults as above) is not backwards,
+    // at most a year long and doesn't go past the forecast (day after tomorrow).
+    // Later days have no data, and each one would stay in the days map until it is in the past
+    public static void checkRange(LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : UpstreamTime.today();
+        LocalDate end = to != null ? to : start.plusDays(2);
+        long dayCount = ChronoUnit.DAYS.between(start, end) + 1;
+        if (dayCount < 1 || dayCount > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Zakres dat musi mieć od 1 do " + MAX_RANGE_DAYS + " dni");
+        }
+        LocalDate lastForecastDay = UpstreamTime.today().plusDays(2);
+        if (end.isAfter(lastForecastDay)) {
+            throw new IllegalArgumentException("Zakres dat może sięgać najdalej do " + lastForecastDay);
+        }
+    }
+    
+    // Gets one day (from the cache or the API) and applies only the changed intervals to the stored aggregate
+    private DayAggregate refreshDay(LocalDate date) {
+        return traced("energy.day", span -> {
+            span.highCardinalityKeyValue("date", date.toString());
+            LocalDate yesterday = UpstreamTime.today().minusDays(1);
+            if (date.isBefore(yesterday)) {
+                return refreshHistoricalDay(date, span);
+            }
+            byte[] encoded = loadGeneration(date);
             
-            // Clean energy sources we care about
-            List<String> cleanSources = Arrays.asList("biomass", "nuclear", "hydro", "wind", "solar");
+            // Days that became history are loaded again (once) into the history map
+            days.keySet().removeIf(day -> day.isBefore(yesterday));
+            DayAggregate aggregate = days.computeIfAbsent(date, day -> new DayAggregate());
+            int changed = aggregate.applyEncoded(encoded);
+            span.highCardinalityKeyValue("changed.intervals", String.valueOf(changed));
+            return aggregate;
+        });
+    }
+    
+    // A day before yesterday: loaded once, then answered from the history map without the API
+    private DayAggregate refreshHistoricalDay(LocalDate date, Observation span) {
+        DayAggregate kept = history.get(date);
+        if (kept != null) {
+            span.lowCardinalityKeyValue("history", "hit");
+            return kept;
+        }
+        span.lowCardinalityKeyValue("history", "miss");
+        
+        // Filled before it goes into the map, so nobody sees a half-loaded day
+        DayAggregate loaded = new DayAggregate();
+        int changed = loaded.applyEncoded(loadGeneration(date));
+        span.highCardinalityKeyValue("changed.intervals", String.valueOf(changed));
+        DayAggregate other = history.putIfAbsent(date, loaded);
+        return other != null ? other : loaded;
+    }
+    
+    // Gets one day from the generation cache. On a miss only the replica holding the lease
+    // calls the API, the others wait a moment for its result instead of calling it too
+    private byte[] loadGeneration(LocalDate date) {
+        String key = "generation:" + date;
+        // We wait at most as long as the other replica's lease lasts (energy.cache.lease-seconds)
+        long giveUpAt = System.currentTimeMillis() + generationCache.leaseMillis();
+        
+        while (true) {
+            byte[] cached = generationCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
             
-            // Process each 30-minute interval
-            for(JsonNode interval : dataArray) {
-                JsonNode generationMix = interval.path("generationmix");
-                
-                for (JsonNode fuel : generationMix) {
-                    String fuelName = fuel.path("fuel").asText();
-                    double percentage = fuel.path("perc").asDouble();
-                    
-                    // Add to total for this fuel type
-                    sums.put(fuelName, sums.getOrDefault(fuelName, 0.0) + percentage);
-                    counts.put(fuelName, counts.getOrDefault(fuelName, 0) + 1);
+            String token = generationCache.tryLock(key);
+            if (token != null) {
+                try {
+                    // Another replica may have finished right before we got the lease
+                    cached = generationCache.get(key);
+                    if (cached != null) {
+                        return cached;
+                    }
+                    byte[] fresh = downloadGeneration(date);
+                    generationCache.put(key, fresh);
+                    return fresh;
+                } finally {
+                    generationCache.unlock(key, token);
                 }
             }
             
-            // Calculate averages for each fuel type
-            Map<String, Double> averages = new HashMap<>();
-            for (String fuel : sums.keySet()) {
-                double average = sums.get(fuel) / counts.get(fuel);
-                averages.put(fuel, Math.round(average * 10.0) / 10.0);
+            if (System.currentTimeMillis() >= giveUpAt) {
+                // The other replica is taking too long - better to ask the API ourselves
+                return downloadGeneration(date);
             }
-            
-            // Calculate total clean energy percentage
-            double cleanEnergyTotal = 0;
-            for (String cleanSource : cleanSources) {
-                cleanEnergyTotal += averages.getOrDefault(cleanSource, 0.0);
+            try {
+                Thread.sleep(LEASE_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Przerwano oczekiwanie na dane dla daty: " + date, e);
             }
-            double cleanEnergyPercentage = Math.round(cleanEnergyTotal * 10.0) / 10.0;
-            
-            // Create and return the EnergyMix object
-            EnergyMix energyMix = new EnergyMix();
-            energyMix.setDate(date);
-            energyMix.setAverageMix(averages);
-            energyMix.setCleanEnergyPercentage(cleanEnergyPercentage);
-            
-            return energyMix;
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Błąd parsowania danych z API", e);
-        }    
+        }
+    }
+    
+    // Downloads one day from the API in the compact cache format (see GenerationCodec)
+    private byte[] downloadGeneration(LocalDate date) {
+        String from = UpstreamTime.formatForApi(date);
+        String to = UpstreamTime.formatForApi(date.plusDays(1));
+        
+        String url = "https://api.carbonintensity.org.uk/generation/" + from + "/" + to;
+        String response = fetch(url);
+        
+        return GenerationCodec.encode(parseEnergyIntervalsFromResponse(response));
+    }
+    
+    // Calls the energy API, never more at once than the bulkhead allows.
+    // Slow or failed calls are hedged and retried by the call policy (every attempt goes through the bulkhead)
+    private String fetch(String url) {
+        return traced("energy.upstream", span -> {
+            span.lowCardinalityKeyValue("endpoint", url.contains("/intensity/") ? "intensity" : "generation");
+            span.highCardinalityKeyValue("url", url);
+            String response = upstreamCallPolicy.call(
+                () -> upstreamBulkhead.call(() -> restTemplate.getForObject(url, String.class)));
+            span.highCardinalityKeyValue("response.bytes", String.valueOf(response == null ? 0 : response.length()));
+            return response;
+        });
     }
     
     // Gets all 30-minute intervals for tomorrow and day after tomorrow
-    private List<EnergyInterval> getEnergyIntervalsForTwoDays() {
-        List<EnergyInterval> allIntervals = new ArrayList<>();
+    // together with the prefix sums of their clean energy
+    private IntervalSeries getEnergyIntervalsForTwoDays(CleanTaxonomy taxonomy) {
+        IntervalSeries series = IntervalSeries.EMPTY;
+        LocalDate today = UpstreamTime.today();
         
         // Only next 2 days (tomorrow and day after)
         for (int i = 1; i <= 2; i++) {
-            LocalDate date = LocalDate.now().plusDays(i);
-            List<EnergyInterval> dayIntervals = getEnergyIntervalsForDate(date);
-            allIntervals.addAll(dayIntervals);
+            LocalDate date = today.plusDays(i);
+            series = series.append(getDayForIntervals(date).getSeries(taxonomy));
         }
         
-        return allIntervals;
+        return series;
     }
 
     // Gets intervals for one specific day
-    private List<EnergyInterval> getEnergyIntervalsForDate(LocalDate date) {
-        List<EnergyInterval> intervals = new ArrayList<>();
-        
+    private DayAggregate getDayForIntervals(LocalDate date) {
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'");
-            String from = date.atStartOfDay().format(formatter);
-            String to = date.plusDays(1).atStartOfDay().format(formatter);
-            
-            String url = "https://api.carbonintensity.org.uk/generation/" + from + "/" + to;
-            String response = restTemplate.getForObject(url, String.class);
-            
-            intervals = parseEnergyIntervalsFromResponse(response);
+            return refreshDay(date);
             
+        } catch (UpstreamBusyException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Błąd pobierania interwałów dla daty: " + date, e);
         }
+    }
+    
+    // Gets every day from start to end (inclusive), in date order. The days are downloaded in parallel,
+    // at most RANGE_FETCH_PARALLELISM at a time, and each download still goes through the bulkhead
+    private List<DayAggregate> getDaysForIntervals(LocalDate start, LocalDate end) {
+        Semaphore permits = new Semaphore(RANGE_FETCH_PARALLELISM);
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<CompletableFuture<DayAggregate>> range = new ArrayList<>();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            LocalDate day = date;
+            range.add(async(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Przerwano pobieranie dnia " + day);
+                }
+                try {
+                    // The caller gave up on the range (cancelled job or a failed day) - don't download more
+                    if (stopped.get()) {
+                        throw new CancellationException("Przerwano pobieranie dnia " + day);
+                    }
+                    return getDayForIntervals(day);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
         
-        return intervals;
+        List<DayAggregate> result = new ArrayList<>(range.size());
+        try {
+            for (CompletableFuture<DayAggregate> day : range) {
+                result.add(await(day));
+            }
+        } catch (RuntimeException e) {
+            stopped.set(true);
+            range.forEach(day -> day.cancel(true));
+            throw e;
+        }
+        return result;
+    }
+    
+    // Converts JSON response into interval snapshots (start, end and every fuel percentage)
+    private List<DayAggregate.IntervalSnapshot> parseEnergyIntervalsFromResponse(String jsonResponse) {
+        return traced("energy.parse", span -> {
+            span.lowCardinalityKeyValue("endpoint", "generation");
+            List<DayAggregate.IntervalSnapshot> snapshots = parseEnergyIntervals(jsonResponse);
+            span.highCardinalityKeyValue("intervals", String.valueOf(snapshots.size()));
+            return snapshots;
+        });
     }
     
-    // Converts JSON response into list of EnergyInterval objects
-    private List<EnergyInterval> parseEnergyIntervalsFromResponse(String jsonResponse) {
-        List<EnergyInterval> intervals = new ArrayList<>();
+    private List<DayAggregate.IntervalSnapshot> parseEnergyIntervals(String jsonResponse) {
+        List<DayAggregate.IntervalSnapshot> snapshots = new ArrayList<>();
         
         try {
             JsonNode root = objectMapper.readTree(jsonResponse);
             JsonNode dataArray = root.path("data");
             
-            List<String> cleanSources = Arrays.asList("biomass", "nuclear", "hydro", "wind", "solar");
-            
+            // Process each 30-minute interval
             for (JsonNode interval : dataArray) {
-                String from = interval.path("from").asText();
-                String to = interval.path("to").asText();
-                
-                // Convert string to LocalDateTime
-                LocalDateTime startTime = LocalDateTime.parse(from.replace("Z", ""));
-                LocalDateTime endTime = LocalDateTime.parse(to.replace("Z", ""));
+                int startSlot = UpstreamTime.parseSlot(interval.path("from").asText());
+                int endSlot = UpstreamTime.parseSlot(interval.path("to").asText());
                 
-                // Calculate clean energy % for this interval
-                double cleanEnergyPercentage = calculateCleanEnergyForInterval(interval, cleanSources);
+                // Percentages by Fuel ordinal; NaN for fuels not reported, unknown fuels are skipped
+                double[] byFuel = new double[FUELS.length];
+                Arrays.fill(byFuel, Double.NaN);
+                for (JsonNode fuel : interval.path("generationmix")) {
+                    Fuel known = Fuel.fromApiName(fuel.path("fuel").asText());
+                    if (known != null) {
+                        byFuel[known.ordinal()] = fuel.path("perc").asDouble();
+                    }
+                }
                 
-                intervals.add(new EnergyInterval(startTime, endTime, cleanEnergyPercentage));
+                snapshots.add(new DayAggregate.IntervalSnapshot(startSlot, endSlot, byFuel));
             }
             
         } catch (Exception e) {
             throw new RuntimeException("Błąd parsowania interwałów", e);
         }
         
-        return intervals;
-    }
-
-    // Calculates clean energy % for a single 30-minute interval
-    private double calculateCleanEnergyForInterval(JsonNode interval, List<String> cleanSources) {
-        double cleanEnergy = 0;
-        JsonNode generationMix = interval.path("generationmix");
-        
-        for (JsonNode fuel : generationMix) {
-            String fuelName = fuel.path("fuel").asText();
-            double percentage = fuel.path("perc").asDouble();
-            
-            if (cleanSources.contains(fuelName)) {
-                cleanEnergy += percentage;
-            }
-        }
-        
-        return Math.round(cleanEnergy * 10.0) / 10.0;
+        return snapshots;
     }
     
-    // Helper class to store the best charging window
+    // Helper class to store the best charging window (times as slots, see UpstreamTime)
     private static class OptimalWindow {
-        private LocalDateTime startTime;
-        private LocalDateTime endTime;
+        private int startSlot;
+        private int endSlot;
         private double averageCleanEnergy;
         
         public OptimalWindow() {}
         
-        public LocalDateTime getStartTime() { return startTime; }
-        public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+        public int getStartSlot() { return startSlot; }
+        public void setStartSlot(int startSlot) { this.startSlot = startSlot; }
         
-        public LocalDateTime getEndTime() { return endTime; }
-        public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+        public int getEndSlot() { return endSlot; }
+        public void setEndSlot(int endSlot) { this.endSlot = endSlot; }
         
         public double getAverageCleanEnergy() { return averageCleanEnergy; }
         public void setAverageCleanEnergy(double averageCleanEnergy) { 
@@ -212,6 +431,11 @@ public class EnergyService {
     
     // Main method to find the best time to charge electric car
     public Map<String, Object> findOptimalChargingWindow(int hours) {
+        return findOptimalChargingWindow(hours, CleanTaxonomy.DEFAULT);
+    }
+    
+    // Same, with clean energy counted by the caller's choice of clean fuels
+    public Map<String, Object> findOptimalChargingWindow(int hours, CleanTaxonomy taxonomy) {
         // Validate input: only 1-6 hours allowed
         if (hours < 1 || hours > 6) {
             throw new IllegalArgumentException("Godziny muszą być między 1 a 6");
@@ -220,24 +444,34 @@ public class EnergyService {
         // Convert hours to 30-minute intervals needed
         int intervalsNeeded = hours * 2;
         
-        // Get all intervals for next 2 days
-        List<EnergyInterval> allIntervals = getEnergyIntervalsForTwoDays();
-        
-        // Find the best time window
-        OptimalWindow optimalWindow = findBestWindow(allIntervals, intervalsNeeded);
-        
-        // Return result with formatted times
-        return Map.of(
-            "startTime", optimalWindow.getStartTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-            "endTime", optimalWindow.getEndTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-            "cleanEnergyPercentage", optimalWindow.getAverageCleanEnergy(),
-            "requestedHours", hours
-        );
+        return traced("energy.optimal-charging", span -> {
+            span.lowCardinalityKeyValue("mode", "clean");
+            span.lowCardinalityKeyValue("taxonomy", taxonomyTag(taxonomy));
+            span.highCardinalityKeyValue("hours", String.valueOf(hours));
+            
+            // Get all intervals for next 2 days
+            IntervalSeries series = getEnergyIntervalsForTwoDays(taxonomy);
+            
+            // Find the best time window
+            OptimalWindow optimalWindow = traced("energy.window", windowSpan -> {
+                windowAttributes(windowSpan, "clean", intervalsNeeded, series.size());
+                return findBestWindow(series, intervalsNeeded);
+            });
+            
+            // Return result with formatted times (UK local time)
+            return Map.of(
+                "startTime", UpstreamTime.formatSlot(optimalWindow.getStartSlot()),
+                "endTime", UpstreamTime.formatSlot(optimalWindow.getEndSlot()),
+                "cleanEnergyPercentage", optimalWindow.getAverageCleanEnergy(),
+                "requestedHours", hours
+            );
+        });
     }
 
     // Finds the best consecutive time window with highest clean energy
-    private OptimalWindow findBestWindow(List<EnergyInterval> intervals, int intervalsNeeded) {
-        if (intervals.size() < intervalsNeeded) {
+    private OptimalWindow findBestWindow(IntervalSeries series, int intervalsNeeded) {
+        double[] cleanPrefix = series.cleanPrefix();
+        if (series.size() < intervalsNeeded) {
             throw new RuntimeException("Za mało danych do znalezienia okna");
         }
         
@@ -245,13 +479,9 @@ public class EnergyService {
         double bestAverage = -1;
         
         // Slide window through all intervals
-        for (int i = 0; i <= intervals.size() - intervalsNeeded; i++) {
-            double windowSum = 0;
-            
-            // Calculate sum for current window
-            for (int j = 0; j < intervalsNeeded; j++) {
-                windowSum += intervals.get(i + j).getCleanEnergyPercentage();
-            }
+        for (int i = 0; i <= series.size() - intervalsNeeded; i++) {
+            // Sum for current window straight from the prefix sums
+            double windowSum = cleanPrefix[i + intervalsNeeded] - cleanPrefix[i];
             
             double windowAverage = windowSum / intervalsNeeded;
             
@@ -259,12 +489,328 @@ public class EnergyService {
             if (windowAverage > bestAverage) {
                 bestAverage = windowAverage;
                 bestWindow = new OptimalWindow();
-                bestWindow.setStartTime(intervals.get(i).getStartTime());
-                bestWindow.setEndTime(intervals.get(i + intervalsNeeded - 1).getEndTime());
+                bestWindow.setStartSlot(series.startSlots()[i]);
+                bestWindow.setEndSlot(series.startSlots()[i + intervalsNeeded - 1] + 1);
                 bestWindow.setAverageCleanEnergy(Math.round(windowAverage * 10.0) / 10.0);
             }
         }
         
         return bestWindow;
     }
-}
\ No newline at end of file
+
+    // Finds the best time to charge when power is not flat: powerKw[j] is the charging power
+    // during the j-th half-hour of the session. Each start time is scored by the clean share
+    // of the energy actually delivered, so the full-power half-hours count the most
+    public Map<String, Object> findOptimalChargingWindowForProfile(double[] powerKw) {
+        if (powerKw == null || powerKw.length < 1 || powerKw.length > MAX_PROFILE_SLOTS) {
+            throw new IllegalArgumentException("Profil ładowania musi mieć od 1 do " + MAX_PROFILE_SLOTS + " przedziałów");
+        }
+        double totalPower = 0;
+        for (double power : powerKw) {
+            // NaN and Infinity too: an infinite power would turn every score into NaN
+            if (!Double.isFinite(power) || power < 0) {
+                throw new IllegalArgumentException("Moc ładowania musi być skończona i nieujemna");
+            }
+            totalPower += power;
+        }
+        if (totalPower <= 0) {
+            throw new IllegalArgumentException("Profil ładowania musi mieć dodatnią moc");
+        }
+        
+        IntervalSeries series = getEnergyIntervalsForTwoDays(CleanTaxonomy.DEFAULT);
+        if (series.size() < powerKw.length) {
+            throw new RuntimeException("Za mało danych do znalezienia okna");
+        }
+        
+        double[] scores = traced("energy.window", span -> {
+            windowAttributes(span, "profile", powerKw.length, series.size());
+            return PowerProfileScorer.score(series.clean(), powerKw);
+        });
+        int best = 0;
+        for (int s = 1; s < scores.length; s++) {
+            if (scores[s] > scores[best]) {
+                best = s;
+            }
+        }
+        
+        return Map.of(
+            "startTime", UpstreamTime.formatSlot(series.startSlots()[best]),
+            "endTime", UpstreamTime.formatSlot(series.startSlots()[best + powerKw.length - 1] + 1),
+            "cleanEnergyPercentage", Math.round(scores[best] * 10.0) / 10.0,
+            "energyKwh", Math.round(totalPower * UpstreamTime.MINUTES_PER_SLOT / 60.0 * 10.0) / 10.0,
+            "profileSlots", powerKw.length
+        );
+    }
+    
+    // Finds the best charging time for the given mode.
+    // INTENSITY and BLEND also use the carbon intensity forecast (gCO2/kWh),
+    // cleanWeight says how much clean % counts in BLEND mode (0..1),
+    // taxonomy which fuels count as clean
+    public Map<String, Object> findOptimalChargingWindow(int hours, OptimizationMode mode, double cleanWeight,
+                                                         CleanTaxonomy taxonomy) {
+        if (mode == OptimizationMode.CLEAN) {
+            return findOptimalChargingWindow(hours, taxonomy);
+        }
+        
+        // Validate input: only 1-6 hours allowed
+        if (hours < 1 || hours > 6) {
+            throw new IllegalArgumentException("Godziny muszą być między 1 a 6");
+        }
+        checkWeight(cleanWeight);
+        
+        int intervalsNeeded = hours * 2;
+        
+        return traced("energy.optimal-charging", span -> {
+            span.lowCardinalityKeyValue("mode", mode.name().toLowerCase());
+            span.lowCardinalityKeyValue("taxonomy", taxonomyTag(taxonomy));
+            span.highCardinalityKeyValue("hours", String.valueOf(hours));
+            
+            // Generation mix and intensity come from two different endpoints - fetch both at once
+            CompletableFuture<IntervalSeries> generation = async(() -> getEnergyIntervalsForTwoDays(taxonomy));
+            CompletableFuture<IntensitySeries> intensity = async(this::getCarbonIntensityForTwoDays);
+            
+            IntervalSeries series = await(generation);
+            IntensitySeries intensitySeries = await(intensity);
+            
+            CarbonWindowOptimizer.JoinedSeries joined = CarbonWindowOptimizer.join(
+                series, intensitySeries.slots(), intensitySeries.values());
+            CarbonWindowOptimizer.Window window = traced("energy.window", windowSpan -> {
+                windowAttributes(windowSpan, mode.name().toLowerCase(), intervalsNeeded, joined.size());
+                return CarbonWindowOptimizer.findBestWindow(joined, intervalsNeeded, mode, cleanWeight);
+            });
+            
+            int startSlot = joined.startSlots()[window.start()];
+            int endSlot = joined.startSlots()[window.start() + intervalsNeeded - 1] + 1;
+            
+            return Map.of(
+                "startTime", UpstreamTime.formatSlot(startSlot),
+                "endTime", UpstreamTime.formatSlot(endSlot),
+                "cleanEnergyPercentage", Math.round(window.averageClean() * 10.0) / 10.0,
+                "averageCarbonIntensity", Math.round(window.averageIntensity() * 10.0) / 10.0,
+                "mode", mode.name().toLowerCase(),
+                "requestedHours", hours
+            );
+        });
+    }
+    
+    // Picks the cleanest 30-minute slots between earliest start and deadline (UK local time).
+    // The slots don't have to be next to each other; maxSessions (optional) limits
+    // how many separate charging blocks we may use
+    public Map<String, Object> findOptimalChargingSlots(int slots, LocalDateTime earliestStart,
+                                                        LocalDateTime deadline, Integer maxSessions) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("Liczba przedziałów musi być większa od 0");
+        }
+        if (!deadline.isAfter(earliestStart)) {
+            throw new IllegalArgumentException("Termin musi być późniejszy niż początek ładowania");
+        }
+        if (maxSessions != null && maxSessions < 1) {
+            throw new IllegalArgumentException("Liczba sesji ładowania musi być większa od 0");
+        }
+        
+        long earliestMinute = UpstreamTime.toEpochMinutes(earliestStart);
+        long deadlineMinute = UpstreamTime.toEpochMinutes(deadline);
+        
+        // Only intervals that fully fit between earliest start and deadline
+        IntervalSeries series = getEnergyIntervalsForTwoDays(CleanTaxonomy.DEFAULT);
+        int[] candidateSlots = new int[series.size()];
+        double[] clean = new double[series.size()];
+        int count = 0;
+        for (int i = 0; i < series.size(); i++) {
+            long start = (long) series.startSlots()[i] * UpstreamTime.MINUTES_PER_SLOT;
+            if (start >= earliestMinute && start + UpstreamTime.MINUTES_PER_SLOT <= deadlineMinute) {
+                candidateSlots[count] = series.startSlots()[i];
+                clean[count] = series.clean()[i];
+                count++;
+            }
+        }
+        clean = Arrays.copyOf(clean, count);
+        
+        double[] candidates = clean;
+        int[] chosen = traced("energy.window", span -> {
+            windowAttributes(span, maxSessions == null ? "slots" : "slots-sessions", slots, candidates.length);
+            return maxSessions == null
+                ? SlotSelector.cleanestSlots(candidates, slots)
+                : SlotSelector.cleanestSlots(candidates, slots, maxSessions);
+        });
+        
+        List<Map<String, Object>> chosenSlots = new ArrayList<>();
+        for (int position : chosen) {
+            chosenSlots.add(Map.of(
+                "startTime", UpstreamTime.formatSlot(candidateSlots[position]),
+                "endTime", UpstreamTime.formatSlot(candidateSlots[position] + 1),
+                "cleanEnergyPercentage", clean[position]
+            ));
+        }
+        
+        return Map.of(
+            "slots", chosenSlots,
+            "cleanEnergyPercentage", Math.round(SlotSelector.average(clean, chosen) * 10.0) / 10.0,
+            "sessions", SlotSelector.countSessions(chosen),
+            "requestedSlots", slots
+        );
+    }
+    
+    // Best clean window for every scenario on a grid over the next 2 days: each duration
+    // from minSlots to maxSlots, with earliest start and deadline every stepSlots half-hours.
+    // Answered in columns (one array per field) that point into "times", which keeps
+    // tens of thousands of scenarios small
+    public Map<String, Object> sweepChargingScenarios(int minSlots, int maxSlots, int stepSlots) {
+        checkSweep(minSlots, maxSlots, stepSlots);
+        
+        IntervalSeries series = getEnergyIntervalsForTwoDays(CleanTaxonomy.DEFAULT);
+        ScenarioSweep.Scenarios scenarios = ScenarioSweep.grid(series.size(), minSlots, maxSlots, stepSlots);
+        ScenarioSweep.Results results = traced("energy.window", span -> {
+            windowAttributes(span, "sweep", maxSlots, series.size());
+            span.highCardinalityKeyValue("scenarios", String.valueOf(scenarios.size()));
+            return ScenarioSweep.sweep(series, scenarios, ForkJoinPool.commonPool());
+        });
+        
+        // Position i is the start of interval i; the last one is the end of the series
+        List<String> times = new ArrayList<>(series.size() + 1);
+        for (int i = 0; i < series.size(); i++) {
+            times.add(UpstreamTime.formatSlot(series.startSlots()[i]));
+        }
+        if (series.size() > 0) {
+            times.add(UpstreamTime.formatSlot(series.startSlots()[series.size() - 1] + 1));
+        }
+        
+        double[] clean = new double[scenarios.size()];
+        for (int i = 0; i < clean.length; i++) {
+            clean[i] = Math.round(results.averageClean()[i] * 10.0) / 10.0;
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("times", times);
+        result.put("scenarios", scenarios.size());
+        result.put("durationSlots", scenarios.durations());
+        result.put("earliest", scenarios.earliest());
+        result.put("deadline", scenarios.deadline());
+        result.put("bestStart", results.bestStart());
+        result.put("cleanEnergyPercentage", clean);
+        return result;
+    }
+    
+    // Checks the sweep grid; public so the job endpoints can check it before queueing a job
+    public static void checkSweep(int minSlots, int maxSlots, int stepSlots) {
+        if (minSlots < 1 || maxSlots > 24 || minSlots > maxSlots) {
+            throw new IllegalArgumentException("Długość ładowania musi być między 1 a 24 przedziałami");
+        }
+        if (stepSlots < 1 || stepSlots > 48) {
+            throw new IllegalArgumentException("Krok siatki musi być między 1 a 48 przedziałami");
+        }
+    }
+    
+    // Carbon intensity per 30-minute interval, start times and values side by side
+    private record IntensitySeries(int[] slots, double[] values) {}
+    
+    // Gets the carbon intensity forecast for tomorrow and day after tomorrow in one call
+    private IntensitySeries getCarbonIntensityForTwoDays() {
+        LocalDate date = UpstreamTime.today().plusDays(1);
+        try {
+            String from = UpstreamTime.formatForApi(date);
+            String to = UpstreamTime.formatForApi(date.plusDays(2));
+            
+            String url = "https://api.carbonintensity.org.uk/intensity/" + from + "/" + to;
+            String response = fetch(url);
+            
+            return parseCarbonIntensityFromResponse(response);
+            
+        } catch (UpstreamBusyException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Błąd pobierania intensywności emisji od daty: " + date, e);
+        }
+    }
+    
+    // Converts /intensity JSON into arrays; uses the actual value when known, otherwise the forecast
+    private IntensitySeries parseCarbonIntensityFromResponse(String jsonResponse) {
+        return traced("energy.parse", span -> {
+            span.lowCardinalityKeyValue("endpoint", "intensity");
+            IntensitySeries series = parseCarbonIntensity(jsonResponse);
+            span.highCardinalityKeyValue("intervals", String.valueOf(series.slots().length));
+            return series;
+        });
+    }
+    
+    private IntensitySeries parseCarbonIntensity(String jsonResponse) {
+        try {
+            JsonNode dataArray = objectMapper.readTree(jsonResponse).path("data");
+            
+            int[] slots = new int[dataArray.size()];
+            double[] values = new double[dataArray.size()];
+            int count = 0;
+            
+            for (JsonNode interval : dataArray) {
+                JsonNode intensity = interval.path("intensity");
+                JsonNode value = intensity.path("actual").isNumber() ? intensity.path("actual") : intensity.path("forecast");
+                if (!value.isNumber()) {
+                    continue;
+                }
+                slots[count] = UpstreamTime.parseSlot(interval.path("from").asText());
+                values[count] = value.asDouble();
+                count++;
+            }
+            
+            return new IntensitySeries(Arrays.copyOf(slots, count), Arrays.copyOf(values, count));
+            
+        } catch (Exception e) {
+            throw new RuntimeException("Błąd parsowania intensywności emisji", e);
+        }
+    }
+    
+    // Runs work inside a tracing span (see SpanLogHandler), a child of the current span.
+    // The work gets the span so it can add attributes it only knows at the end
+    private <T> T traced(String name, Function<Observation, T> work) {
+        Observation span = Observation.start(name, observationRegistry);
+        try (Observation.Scope scope = span.openScope()) {
+            return work.apply(span);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.stop();
+        }
+    }
+    
+    // Named profiles are few, own fuel lists could be anything - keep the span tag low-cardinality
+    private static String taxonomyTag(CleanTaxonomy taxonomy) {
+        return taxonomy.isProfile() ? taxonomy.name() : "custom";
+    }
+    
+    private static void windowAttributes(Observation span, String algorithm, int windowSlots, int seriesSize) {
+        span.lowCardinalityKeyValue("algorithm", algorithm);
+        span.highCardinalityKeyValue("window.slots", String.valueOf(windowSlots));
+        span.highCardinalityKeyValue("series.size", String.valueOf(seriesSize));
+    }
+    
+    // Runs a task on the upstream executor; spans it starts stay children of the caller's span
+    private <T> CompletableFuture<T> async(Supplier<T> task) {
+        Observation parent = observationRegistry.getCurrentObservation();
+        return CompletableFuture.supplyAsync(() -> {
+            if (parent == null) {
+                return task.get();
+            }
+            try (Observation.Scope scope = parent.openScope()) {
+                return task.get();
+            }
+        }, upstreamExecutor);
+    }
+    
+    // Waits for a background call and rethrows its original error.
+    // An interrupt (a cancelled job) stops the wait and cancels the call
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Przerwano oczekiwanie na odpowiedź API");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.energy.mix.service;
+
+import com.energy.mix.model.Fuel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Distribution of each fuel's percentage over many 30-minute intervals, collected in one pass.
+// Everything is kept in plain doubles: count, min, max, running mean and variance (Welford),
+// and the values themselves in a growing double[] so percentiles can be picked exactly
+// with quickselect at the end. A year is only ~17,500 values per fuel.
+final class FuelStatistics {
+
+    // Running numbers for one fuel
+    private static final class Accumulator {
+        private int count;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double mean;
+        private double m2;  // sum of squared distances from the mean
+        private double[] values = new double[64];
+
+        void add(double value) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+    }
+
+    // Fuels sorted by name so the result always has the same order
+    private static final Fuel[] BY_NAME = Arrays.stream(Fuel.values())
+        .sorted(Comparator.comparing(Fuel::getApiName))
+        .toArray(Fuel[]::new);
+
+    // Accumulators by Fuel ordinal, null until the fuel shows up
+    private final Accumulator[] fuels = new Accumulator[Fuel.values().length];
+
+    // Clean energy share of each day, in the order the days were added
+    private final List<String> dayLabels = new ArrayList<>();
+    private double[] dayClean = new double[8];
+
+    // Adds one fuel percentage of one interval
+    void add(Fuel fuel, double percentage) {
+        Accumulator accumulator = fuels[fuel.ordinal()];
+        if (accumulator == null) {
+            accumulator = new Accumulator();
+            fuels[fuel.ordinal()] = accumulator;
+        }
+        accumulator.add(percentage);
+    }
+
+    // Adds the clean energy share of one day (average of its intervals)
+    void addDay(String date, IntervalSeries series) {
+        if (dayLabels.size() == dayClean.length) {
+            dayClean = Arrays.copyOf(dayClean, dayClean.length * 2);
+        }
+        double share = series.size() == 0 ? 0 : series.cleanPrefix()[series.size()] / series.size();
+        dayClean[dayLabels.size()] = share;
+        dayLabels.add(date);
+    }
+
+    // Result for the API, rounded like the rest of our numbers
+    Map<String, Object> toResult() {
+        Map<String, Object> fuelResults = new LinkedHashMap<>();
+        for (Fuel fuel : BY_NAME) {
+            Accumulator accumulator = fuels[fuel.ordinal()];
+            if (accumulator == null) {
+                continue;
+            }
+            double[] values = accumulator.values;
+            int count = accumulator.count;
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", count);
+            stats.put("min", round(accumulator.min));
+            stats.put("max", round(accumulator.max));
+            stats.put("mean", round(accumulator.mean));
+            stats.put("std", round(Math.sqrt(accumulator.m2 / count)));
+            stats.put("p10", round(percentile(values, count, 0.10)));
+            stats.put("p50", round(percentile(values, count, 0.50)));
+            stats.put("p90", round(percentile(values, count, 0.90)));
+            fuelResults.put(fuel.getApiName(), stats);
+        }
+
+        List<Map<String, Object>> days = new ArrayList<>();
+        for (int i = 0; i < dayLabels.size(); i++) {
+            days.add(Map.of("date", dayLabels.get(i), "cleanEnergyPercentage", round(dayClean[i])));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fuels", fuelResults);
+        result.put("days", days);
+        return result;
+    }
+
+    // Percentile with linear interpolation between the two nearest values (like a spreadsheet).
+    // Reorders values[0..count) - fine, the order doesn't matter to anyone else
+    static double percentile(double[] values, int count, double p) {
+        double rank = p * (count - 1);
+        int lower = (int) rank;
+        double lowerValue = select(values, count, lower);
+        if (lower + 1 >= count) {
+            return lowerValue;
+        }
+        // After select everything right of "lower" is >= it, so the next value is their minimum
+        double upperValue = Double.POSITIVE_INFINITY;
+        for (int i = lower + 1; i < count; i++) {
+            upperValue = Math.min(upperValue, values[i]);
+        }
+        return lowerValue + (rank - lower) * (upperValue - lowerValue);
+    }
+
+    // Quickselect: moves the k-th smallest value to position k, smaller ones left, larger ones right
+    static double select(double[] values, int count, int k) {
+        int left = 0;
+        int right = count - 1;
+        while (left < right) {
+            // Middle of three as pivot, so already sorted data doesn't make it slow
+            int middle = (left + right) >>> 1;
+            double pivot = Math.max(Math.min(values[left], values[middle]),
+                Math.min(Math.max(values[left], values[middle]), values[right]));
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double swap = values[i];
+                    values[i] = values[j];
+                    values[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.energy.mix.service;
+
+import com.energy.mix.model.Fuel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Compact binary form of one day of generation data, used for the shared cache.
+// Layout: version, fuel names once (a small dictionary), then every interval as
+// start slot, end slot and (fuel index, percentage) pairs. Several times smaller than the API's JSON.
+final class GenerationCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final Fuel[] FUELS = Fuel.values();
+
+    private GenerationCodec() {
+    }
+
+    static byte[] encode(List<DayAggregate.IntervalSnapshot> snapshots) {
+        // Only fuels that appear somewhere go into the dictionary; index[ordinal] is their number
+        int seen = 0;
+        for (DayAggregate.IntervalSnapshot snapshot : snapshots) {
+            seen |= snapshot.getReported();
+        }
+        int[] index = new int[FUELS.length];
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + snapshots.size() * 80);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(Integer.bitCount(seen));
+            int next = 0;
+            for (int bits = seen; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                index[i] = next++;
+                out.writeUTF(FUELS[i].getApiName());
+            }
+
+            out.writeShort(snapshots.size());
+            for (DayAggregate.IntervalSnapshot snapshot : snapshots) {
+                out.writeInt(snapshot.getStartSlot());
+                out.writeInt(snapshot.getEndSlot());
+                out.writeByte(Integer.bitCount(snapshot.getReported()));
+                for (int bits = snapshot.getReported(); bits != 0; bits &= bits - 1) {
+                    int i = Integer.numberOfTrailingZeros(bits);
+                    out.writeByte(index[i]);
+                    out.writeDouble(snapshot.get(i));
+                }
+            }
+        } catch (IOException e) {
+            // Writing to memory can't really fail
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<DayAggregate.IntervalSnapshot> decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Nieznana wersja danych w cache: " + version);
+            }
+
+            // Dictionary number -> Fuel (null for a name this version doesn't know)
+            Fuel[] dictionary = new Fuel[in.readUnsignedByte()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = Fuel.fromApiName(in.readUTF());
+            }
+
+            int count = in.readUnsignedShort();
+            List<DayAggregate.IntervalSnapshot> snapshots = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int startSlot = in.readInt();
+                int endSlot = in.readInt();
+                int fuelCount = in.readUnsignedByte();
+                double[] byFuel = new double[FUELS.length];
+                Arrays.fill(byFuel, Double.NaN);
+                for (int j = 0; j < fuelCount; j++) {
+                    Fuel fuel = dictionary[in.readUnsignedByte()];
+                    double percentage = in.readDouble();
+                    if (fuel != null) {
+                        byFuel[fuel.ordinal()] = percentage;
+                    }
+                }
+                snapshots.add(new DayAggregate.IntervalSnapshot(startSlot, endSlot, byFuel));
+            }
+            return snapshots;
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Uszkodzone dane w cache", e);
+        }
+    }
+}
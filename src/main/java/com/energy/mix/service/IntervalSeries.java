@@ -0,0 +1,34 @@
+package com.energy.mix.service;
+
+// 30-minute intervals in time order, kept as plain arrays:
+// startSlots[i] is the slot (see UpstreamTime) where interval i starts, clean[i] its clean energy %,
+// and cleanPrefix[i] the sum of clean energy of the first i intervals (one element longer).
+// The arrays are never changed after the series is built, so a series can be shared freely.
+record IntervalSeries(int[] startSlots, double[] clean, double[] cleanPrefix) {
+
+    static final IntervalSeries EMPTY = new IntervalSeries(new int[0], new double[0], new double[1]);
+
+    int size() {
+        return startSlots.length;
+    }
+
+    // This series followed by another one, prefix sums continuing where the first one ended
+    IntervalSeries append(IntervalSeries next) {
+        int size = size();
+        int[] slots = new int[size + next.size()];
+        double[] values = new double[size + next.size()];
+        double[] prefix = new double[size + next.size() + 1];
+
+        System.arraycopy(startSlots, 0, slots, 0, size);
+        System.arraycopy(next.startSlots, 0, slots, size, next.size());
+        System.arraycopy(clean, 0, values, 0, size);
+        System.arraycopy(next.clean, 0, values, size, next.size());
+        System.arraycopy(cleanPrefix, 0, prefix, 0, size + 1);
+
+        double offset = cleanPrefix[size];
+        for (int i = 1; i <= next.size(); i++) {
+            prefix[size + i] = offset + next.cleanPrefix[i];
+        }
+        return new IntervalSeries(slots, values, prefix);
+    }
+}
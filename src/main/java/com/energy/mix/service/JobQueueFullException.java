@@ -0,0 +1,17 @@
+package com.energy.mix.service;
+
+// Thrown when every worker is busy and the job queue is full (see JobService).
+// The controller turns it into 503 with a Retry-After header.
+public class JobQueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;  // How long the client should wait before trying again
+
+    public JobQueueFullException(long retryAfterSeconds) {
+        super("Kolejka zadań jest pełna, spróbuj ponownie za " + retryAfterSeconds + " s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
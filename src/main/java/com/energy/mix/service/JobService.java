@@ -0,0 +1,230 @@
+package com.energy.mix.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs long optimizations in the background so no request has to wait for them.
+// A job is submitted, gets an id, and the client polls its status and fetches the result later.
+// A fixed number of workers takes jobs from a bounded queue; when the queue is full we refuse
+// new jobs (503) instead of piling them up. Finished jobs are kept in memory until they expire.
+@Component
+public class JobService {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    // One submitted job; status and result are written by the worker and read by pollers
+    private static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final String type;
+        private final Instant submittedAt = Instant.now();
+        // Span of the request that submitted the job, so the job's span joins the same trace
+        private Observation submittedBy;
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile Object result;
+        private volatile String error;
+        private FutureTask<Void> task;
+
+        Job(String type) {
+            this.type = type;
+        }
+    }
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor workers;
+    private final long resultTtlMs;
+    private final long retryAfterSeconds;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    private final Counter rejections;
+    private final ObservationRegistry observationRegistry;
+
+    public JobService(@Value("${energy.jobs.workers:2}") int workerCount,
+                      @Value("${energy.jobs.max-queue:16}") int maxQueue,
+                      @Value("${energy.jobs.result-ttl-seconds:600}") long resultTtlSeconds,
+                      @Value("${energy.upstream.retry-after-seconds:2}") long retryAfterSeconds,
+                      MeterRegistry meterRegistry,
+                      ObservationRegistry observationRegistry) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxQueue),
+            runnable -> {
+                Thread thread = new Thread(runnable, "energy-job-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.resultTtlMs = resultTtlSeconds * 1000;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+
+        Gauge.builder("energy.jobs.queue.depth", workers, executor -> executor.getQueue().size())
+            .description("Jobs waiting for a free worker")
+            .register(meterRegistry);
+        Gauge.builder("energy.jobs.active", running, AtomicInteger::get)
+            .description("Jobs running right now")
+            .register(meterRegistry);
+        this.rejections = Counter.builder("energy.jobs.rejections")
+            .description("Jobs refused because the queue was full")
+            .register(meterRegistry);
+    }
+
+    // Queues the work and returns the new job's status (with its id), or throws JobQueueFullException
+    public Map<String, Object> submit(String type, Supplier<Object> work) {
+        removeExpired();
+        Job job = new Job(type);
+        job.submittedBy = observationRegistry.getCurrentObservation();
+        job.task = new FutureTask<>(() -> run(job, work), null);
+        jobs.put(job.id, job);
+
+        try {
+            workers.execute(job.task);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            rejections.increment();
+            throw new JobQueueFullException(retryAfterSeconds);
+        }
+        return describe(job);
+    }
+
+    // Current status of a job, or null when there is no such job (or it has expired)
+    public Map<String, Object> getStatus(String id) {
+        removeExpired();
+        Job job = jobs.get(id);
+        return job == null ? null : describe(job);
+    }
+
+    // Result of a finished job, or null when there is no such job.
+    // Throws IllegalStateException while the job hasn't finished successfully
+    public Object getResult(String id) {
+        removeExpired();
+        Job job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        if (job.status != Status.DONE) {
+            throw new IllegalStateException("Zadanie nie ma wyniku, status: " + job.status.name().toLowerCase());
+        }
+        return job.result;
+    }
+
+    // Cancels a job that hasn't finished yet; returns its status, or null when there is no such job
+    public Map<String, Object> cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job) {
+            if (job.status == Status.QUEUED || job.status == Status.RUNNING) {
+                job.status = Status.CANCELLED;
+                job.finishedAt = Instant.now();
+                job.task.cancel(true);
+                // Free its place in the queue straight away
+                workers.remove(job.task);
+            }
+        }
+        return describe(job);
+    }
+
+    private void run(Job job, Supplier<Object> work) {
+        synchronized (job) {
+            if (job.status != Status.QUEUED) {
+                return;
+            }
+            job.status = Status.RUNNING;
+            job.startedAt = Instant.now();
+        }
+
+        running.incrementAndGet();
+        long start = System.nanoTime();
+        Object result = null;
+        RuntimeException failure = null;
+        Observation span = Observation.createNotStarted("energy.job", observationRegistry)
+            .parentObservation(job.submittedBy)
+            .lowCardinalityKeyValue("type", job.type)
+            .highCardinalityKeyValue("job.id", job.id)
+            .start();
+        try (Observation.Scope scope = span.openScope()) {
+            result = work.get();
+        } catch (RuntimeException e) {
+            failure = e;
+            span.error(e);
+        } finally {
+            running.decrementAndGet();
+            span.stop();
+        }
+
+        // Metric first, so by the time a poller sees the job finished, its runtime is recorded too
+        String outcome = job.status == Status.CANCELLED ? "cancelled" : failure == null ? "done" : "failed";
+        Timer.builder("energy.jobs.runtime")
+            .description("How long jobs ran")
+            .tag("type", job.type)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        // Result, finish time and status change together; a cancelled job keeps its own
+        synchronized (job) {
+            if (job.status == Status.RUNNING) {
+                job.result = result;
+                job.error = failure == null ? null : failure.getMessage();
+                job.finishedAt = Instant.now();
+                job.status = failure == null ? Status.DONE : Status.FAILED;
+            }
+        }
+    }
+
+    // Finished jobs are dropped once nobody could still need their result
+    private void removeExpired() {
+        Instant oldest = Instant.now().minusMillis(resultTtlMs);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(oldest));
+    }
+
+    // Read under the job's lock, so status and finish time always match
+    private Map<String, Object> describe(Job job) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        synchronized (job) {
+            result.put("jobId", job.id);
+            result.put("type", job.type);
+            result.put("status", job.status.name().toLowerCase());
+            result.put("submittedAt", job.submittedAt.toString());
+            if (job.startedAt != null) {
+                result.put("startedAt", job.startedAt.toString());
+            }
+            if (job.finishedAt != null) {
+                result.put("finishedAt", job.finishedAt.toString());
+            }
+            if (job.error != null) {
+                result.put("error", job.error);
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
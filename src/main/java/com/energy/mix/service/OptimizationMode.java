@@ -0,0 +1,18 @@
+package com.energy.mix.service;
+
+// What "best charging window" means for /optimal-charging
+public enum OptimizationMode {
+    CLEAN,      // highest average clean energy % (the original behaviour)
+    INTENSITY,  // lowest average carbon intensity (gCO2/kWh)
+    BLEND;      // weighted mix of both
+
+    // Reads the "mode" request parameter, e.g. "intensity"
+    public static OptimizationMode fromParam(String value) {
+        for (OptimizationMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Nieznany tryb optymalizacji: " + value);
+    }
+}
@@ -0,0 +1,140 @@
+package com.energy.mix.service;
+
+// Scores every start time for a charging session whose power changes over time
+// (e.g. fast at first, then tapering as the battery fills).
+// The score of start s is the energy-weighted clean share:
+//   sum(power[j] * clean[s + j]) / sum(power[j])
+// which is the profile slid along the clean energy series (a correlation).
+// Short profiles use a plain double loop; long profiles on long series go through an FFT,
+// which costs O(n log n) instead of O(n * profile length).
+final class PowerProfileScorer {
+
+    // One step of the FFT costs about as much as this many multiply-adds of the plain loop
+    // (measured on series from 2 days to a year long)
+    private static final int FFT_COST_FACTOR = 14;
+
+    private PowerProfileScorer() {
+    }
+
+    // Score for every start position 0..clean.length - profile.length
+    static double[] score(double[] clean, double[] profile) {
+        double[] weighted = useFft(clean.length, profile.length)
+            ? correlateFft(clean, profile)
+            : correlateDirect(clean, profile);
+
+        double totalPower = 0;
+        for (double power : profile) {
+            totalPower += power;
+        }
+        for (int s = 0; s < weighted.length; s++) {
+            weighted[s] /= totalPower;
+        }
+        return weighted;
+    }
+
+    // The FFT only pays off when the plain loop would do many times more work.
+    // For our 2-day horizon (96 slots) that never happens; it matters for long series
+    static boolean useFft(int n, int m) {
+        int size = fftSize(n + m - 1);
+        long directWork = (long) (n - m + 1) * m;
+        long fftWork = (long) FFT_COST_FACTOR * size * Integer.numberOfTrailingZeros(size);
+        return directWork > fftWork;
+    }
+
+    // sum(profile[j] * clean[s + j]) for every s, straight from the definition
+    static double[] correlateDirect(double[] clean, double[] profile) {
+        double[] result = new double[clean.length - profile.length + 1];
+        for (int s = 0; s < result.length; s++) {
+            double sum = 0;
+            for (int j = 0; j < profile.length; j++) {
+                sum += profile[j] * clean[s + j];
+            }
+            result[s] = sum;
+        }
+        return result;
+    }
+
+    // Same as correlateDirect, computed as a convolution with the reversed profile via FFT
+    static double[] correlateFft(double[] clean, double[] profile) {
+        int n = clean.length;
+        int m = profile.length;
+        int size = fftSize(n + m - 1);
+
+        double[] aRe = new double[size];
+        double[] aIm = new double[size];
+        double[] bRe = new double[size];
+        double[] bIm = new double[size];
+        System.arraycopy(clean, 0, aRe, 0, n);
+        for (int j = 0; j < m; j++) {
+            bRe[j] = profile[m - 1 - j];
+        }
+
+        fft(aRe, aIm, false);
+        fft(bRe, bIm, false);
+        for (int k = 0; k < size; k++) {
+            double re = aRe[k] * bRe[k] - aIm[k] * bIm[k];
+            double im = aRe[k] * bIm[k] + aIm[k] * bRe[k];
+            aRe[k] = re;
+            aIm[k] = im;
+        }
+        fft(aRe, aIm, true);
+
+        // Full convolution index s + m - 1 is the correlation at start s
+        double[] result = new double[n - m + 1];
+        for (int s = 0; s < result.length; s++) {
+            result[s] = aRe[s + m - 1] / size;
+        }
+        return result;
+    }
+
+    // Smallest power of two that fits the full convolution
+    private static int fftSize(int length) {
+        int size = Integer.highestOneBit(length);
+        return size < length ? size << 1 : size;
+    }
+
+    // In-place iterative radix-2 FFT (length must be a power of two); inverse is left unscaled
+    private static void fft(double[] re, double[] im, boolean inverse) {
+        int n = re.length;
+
+        // Bit-reversal permutation
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double swap = re[i];
+                re[i] = re[j];
+                re[j] = swap;
+                swap = im[i];
+                im[i] = im[j];
+                im[j] = swap;
+            }
+        }
+
+        for (int length = 2; length <= n; length <<= 1) {
+            double angle = 2 * Math.PI / length * (inverse ? 1 : -1);
+            double stepRe = Math.cos(angle);
+            double stepIm = Math.sin(angle);
+            for (int start = 0; start < n; start += length) {
+                double wRe = 1;
+                double wIm = 0;
+                for (int k = 0; k < length / 2; k++) {
+                    int even = start + k;
+                    int odd = even + length / 2;
+                    double oddRe = re[odd] * wRe - im[odd] * wIm;
+                    double oddIm = re[odd] * wIm + im[odd] * wRe;
+                    re[odd] = re[even] - oddRe;
+                    im[odd] = im[even] - oddIm;
+                    re[even] += oddRe;
+                    im[even] += oddIm;
+                    double nextRe = wRe * stepRe - wIm * stepIm;
+                    wIm = wRe * stepIm + wIm * stepRe;
+                    wRe = nextRe;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.energy.mix.service;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Best charging window for many scenarios (duration, earliest start, deadline) at once.
+// All scenarios read the same prefix-sum array and write only their own place in the result arrays,
+// so they can be split across cores with a parallel stream without any locking.
+final class ScenarioSweep {
+
+    // Scenarios side by side, positions are indexes into the interval series:
+    // the window must start at or after earliest[i] and end at or before deadline[i]
+    record Scenarios(int[] durations, int[] earliest, int[] deadline) {
+        int size() {
+            return durations.length;
+        }
+    }
+
+    // Answer for every scenario: position of the best window start and its average clean %
+    record Results(int[] bestStart, double[] averageClean) {}
+
+    private ScenarioSweep() {
+    }
+
+    // Every combination of duration (minSlots..maxSlots) with earliest start and deadline on a grid
+    // of every stepSlots-th position (the end of the series counts as a deadline too)
+    static Scenarios grid(int seriesSize, int minSlots, int maxSlots, int stepSlots) {
+        int points = (seriesSize + stepSlots - 1) / stepSlots + 1;
+        int count = 0;
+        for (int duration = minSlots; duration <= maxSlots; duration++) {
+            for (int e = 0; e < points; e++) {
+                for (int d = e + 1; d < points; d++) {
+                    if (gridPosition(d, stepSlots, seriesSize) - e * stepSlots >= duration) {
+                        count++;
+                    }
+                }
+            }
+        }
+
+        int[] durations = new int[count];
+        int[] earliest = new int[count];
+        int[] deadline = new int[count];
+        int i = 0;
+        for (int duration = minSlots; duration <= maxSlots; duration++) {
+            for (int e = 0; e < points; e++) {
+                for (int d = e + 1; d < points; d++) {
+                    int deadlinePosition = gridPosition(d, stepSlots, seriesSize);
+                    if (deadlinePosition - e * stepSlots >= duration) {
+                        durations[i] = duration;
+                        earliest[i] = e * stepSlots;
+                        deadline[i] = deadlinePosition;
+                        i++;
+                    }
+                }
+            }
+        }
+        return new Scenarios(durations, earliest, deadline);
+    }
+
+    // Solves all scenarios on the given pool (its size decides how many cores are used)
+    static Results sweep(IntervalSeries series, Scenarios scenarios, ForkJoinPool pool) {
+        double[] cleanPrefix = series.cleanPrefix();
+        int[] bestStart = new int[scenarios.size()];
+        double[] averageClean = new double[scenarios.size()];
+
+        Runnable task = () -> IntStream.range(0, scenarios.size()).parallel().forEach(i -> {
+            int duration = scenarios.durations()[i];
+            int lastStart = Math.min(scenarios.deadline()[i], series.size()) - duration;
+            int best = -1;
+            double bestSum = Double.NEGATIVE_INFINITY;
+            for (int start = scenarios.earliest()[i]; start <= lastStart; start++) {
+                double sum = cleanPrefix[start + duration] - cleanPrefix[start];
+                if (sum > bestSum) {
+                    bestSum = sum;
+                    best = start;
+                }
+            }
+            bestStart[i] = best;
+            averageClean[i] = best < 0 ? Double.NaN : bestSum / duration;
+        });
+
+        // A parallel stream started inside a pool runs on that pool's threads
+        try {
+            pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Przerwano obliczanie scenariuszy", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Błąd obliczania scenariuszy", e.getCause());
+        }
+        return new Results(bestStart, averageClean);
+    }
+
+    // Grid point d as a position; the last point may be the end of a series that isn't a whole step
+    private static int gridPosition(int d, int stepSlots, int seriesSize) {
+        return Math.min(d * stepSlots, seriesSize);
+    }
+}
@@ -0,0 +1,192 @@
+package com.energy.mix.service;
+
+import java.util.Arrays;
+
+// Picks the cleanest 30-minute slots when charging doesn't have to be one continuous block.
+// All methods work on plain arrays of clean energy % and return slot positions in time order.
+final class SlotSelector {
+
+    private SlotSelector() {}
+
+    // Cleanest N slots anywhere in the range, using a bounded min-heap of size N.
+    // On equal clean % the earlier slot wins.
+    static int[] cleanestSlots(double[] clean, int needed) {
+        if (needed > clean.length) {
+            throw new IllegalArgumentException("Za mało przedziałów przed terminem");
+        }
+
+        // heap[0] is the worst slot we are still keeping
+        int[] heap = new int[needed];
+        int size = 0;
+        for (int i = 0; i < clean.length; i++) {
+            if (size < needed) {
+                heap[size] = i;
+                siftUp(heap, size, clean);
+                size++;
+            } else if (clean[i] > clean[heap[0]]) {
+                heap[0] = i;
+                siftDown(heap, size, clean);
+            }
+        }
+
+        Arrays.sort(heap);
+        return heap;
+    }
+
+    // Cleanest N slots split into at most maxSessions continuous blocks,
+    // so the charger isn't switched on and off all the time.
+    static int[] cleanestSlots(double[] clean, int needed, int maxSessions) {
+        int n = clean.length;
+        if (needed > n) {
+            throw new IllegalArgumentException("Za mało przedziałów przed terminem");
+        }
+        if (maxSessions >= needed) {
+            // The cap can never be hit, so the heap gives the same answer faster
+            return cleanestSlots(clean, needed);
+        }
+
+        // best[state]: best sum with j slots chosen in k sessions, s = 1 if the previous slot was chosen
+        int states = (needed + 1) * (maxSessions + 1) * 2;
+        double[] best = new double[states];
+        Arrays.fill(best, Double.NEGATIVE_INFINITY);
+        best[state(0, 0, 0, maxSessions)] = 0;
+
+        // decision[i][state]: bit 0 = slot i was taken, bit 1 = s of the state we came from
+        byte[][] decision = new byte[n][states];
+        double[] next = new double[states];
+
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(next, Double.NEGATIVE_INFINITY);
+            for (int j = 0; j <= needed; j++) {
+                for (int k = 0; k <= maxSessions; k++) {
+                    for (int s = 0; s <= 1; s++) {
+                        double current = best[state(j, k, s, maxSessions)];
+                        if (current == Double.NEGATIVE_INFINITY) {
+                            continue;
+                        }
+
+                        // Skip slot i
+                        int skip = state(j, k, 0, maxSessions);
+                        if (current > next[skip]) {
+                            next[skip] = current;
+                            decision[i][skip] = (byte) (s << 1);
+                        }
+
+                        // Take slot i - starts a new session unless the previous slot was taken
+                        int sessions = s == 1 ? k : k + 1;
+                        if (j < needed && sessions <= maxSessions) {
+                            int take = state(j + 1, sessions, 1, maxSessions);
+                            double value = current + clean[i];
+                            if (value > next[take]) {
+                                next[take] = value;
+                                decision[i][take] = (byte) ((s << 1) | 1);
+                            }
+                        }
+                    }
+                }
+            }
+            double[] swap = best;
+            best = next;
+            next = swap;
+        }
+
+        // Best finishing state with all slots chosen
+        int bestK = -1;
+        int bestS = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int k = 1; k <= maxSessions; k++) {
+            for (int s = 0; s <= 1; s++) {
+                double value = best[state(needed, k, s, maxSessions)];
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestK = k;
+                    bestS = s;
+                }
+            }
+        }
+
+        // Walk back through the decisions
+        int[] result = new int[needed];
+        int j = needed;
+        int k = bestK;
+        int s = bestS;
+        for (int i = n - 1; i >= 0; i--) {
+            byte d = decision[i][state(j, k, s, maxSessions)];
+            int previousS = (d >> 1) & 1;
+            if ((d & 1) != 0) {
+                result[--j] = i;
+                if (previousS == 0) {
+                    k--;
+                }
+            }
+            s = previousS;
+        }
+        return result;
+    }
+
+    // Average clean % of the chosen slots
+    static double average(double[] clean, int[] slots) {
+        double sum = 0;
+        for (int slot : slots) {
+            sum += clean[slot];
+        }
+        return sum / slots.length;
+    }
+
+    // Number of continuous blocks in sorted slot positions
+    static int countSessions(int[] slots) {
+        int sessions = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (i == 0 || slots[i] != slots[i - 1] + 1) {
+                sessions++;
+            }
+        }
+        return sessions;
+    }
+
+    private static int state(int j, int k, int s, int maxSessions) {
+        return (j * (maxSessions + 1) + k) * 2 + s;
+    }
+
+    private static void siftUp(int[] heap, int i, double[] clean) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!worse(heap[i], heap[parent], clean)) {
+                break;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, double[] clean) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            int right = left + 1;
+            int worst = i;
+            if (left < size && worse(heap[left], heap[worst], clean)) {
+                worst = left;
+            }
+            if (right < size && worse(heap[right], heap[worst], clean)) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    // Lower clean % is worse; between equal ones the later slot is worse
+    private static boolean worse(int a, int b, double[] clean) {
+        return clean[a] < clean[b] || (clean[a] == clean[b] && a > b);
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
@@ -0,0 +1,81 @@
+package com.energy.mix.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Limits how many calls to the energy API run at the same time.
+// Extra callers wait in a short queue; when the queue is full or the wait takes too long
+// we give up straight away instead of piling up threads (and upstream 429s).
+@Component
+public class UpstreamBulkhead {
+
+    private final Semaphore permits;
+    private final int maxQueue;
+    private final long queueTimeoutMs;
+    private final long retryAfterSeconds;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter rejections;
+
+    public UpstreamBulkhead(@Value("${energy.upstream.max-concurrent-calls:8}") int maxConcurrentCalls,
+                            @Value("${energy.upstream.max-queue:32}") int maxQueue,
+                            @Value("${energy.upstream.queue-timeout-ms:500}") long queueTimeoutMs,
+                            @Value("${energy.upstream.retry-after-seconds:2}") long retryAfterSeconds,
+                            MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.maxQueue = maxQueue;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("energy.upstream.bulkhead.queue.depth", waiting, AtomicInteger::get)
+            .description("Calls waiting for a free upstream slot")
+            .register(meterRegistry);
+        Gauge.builder("energy.upstream.bulkhead.active", permits, p -> maxConcurrentCalls - p.availablePermits())
+            .description("Upstream calls in progress")
+            .register(meterRegistry);
+        this.rejections = Counter.builder("energy.upstream.bulkhead.rejections")
+            .description("Calls rejected because the upstream limit was reached")
+            .register(meterRegistry);
+    }
+
+    // Runs the call when a slot is free, or throws UpstreamBusyException
+    public <T> T call(Supplier<T> upstreamCall) {
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            throw reject();
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        if (!acquired) {
+            throw reject();
+        }
+
+        try {
+            return upstreamCall.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private UpstreamBusyException reject() {
+        rejections.increment();
+        return new UpstreamBusyException(retryAfterSeconds);
+    }
+}
@@ -0,0 +1,17 @@
+package com.energy.mix.service;
+
+// Thrown when too many calls to the energy API are already running or waiting.
+// The controller turns it into 503 with a Retry-After header.
+public class UpstreamBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;  // How long the client should wait before trying again
+
+    public UpstreamBusyException(long retryAfterSeconds) {
+        super("Serwis jest przeciążony, spróbuj ponownie za " + retryAfterSeconds + " s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,257 @@
+package com.energy.mix.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// How we call the energy API (only GETs, so repeating a call is always safe):
+// - failed calls (timeouts, 5xx, 429) are retried with exponential backoff and full jitter
+// - if a call hasn't answered by the p95 of recent calls, a second identical one is sent
+//   ("hedging") and whichever answers first wins
+// Retries and hedges share a budget that grows with normal calls, so when the API is down
+// we don't multiply its load by the number of attempts.
+@Component
+public class UpstreamCallPolicy {
+
+    // How many recent call times we keep for the p95
+    private static final int LATENCY_WINDOW = 256;
+    // Below this many samples the p95 means little, so we don't hedge yet
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    // The budget never grows above this many extra calls
+    private static final double MAX_BUDGET = 10;
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final double budgetRatio;
+    private final boolean hedgeEnabled;
+    private final long minHedgeDelayMs;
+
+    // Extra calls (retries or hedges) we may still make
+    private double budget = MAX_BUDGET;
+
+    // Ring buffer of recent successful call times in milliseconds
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyNext;
+
+    // Hedged calls run here, so the caller can stop waiting for the slow one
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter retries;
+    private final Counter hedges;
+    private final Counter budgetExhausted;
+
+    public UpstreamCallPolicy(@Value("${energy.upstream.retry.max-attempts:3}") int maxAttempts,
+                              @Value("${energy.upstream.retry.base-backoff-ms:100}") long baseBackoffMs,
+                              @Value("${energy.upstream.retry.max-backoff-ms:1000}") long maxBackoffMs,
+                              @Value("${energy.upstream.retry.budget-ratio:0.1}") double budgetRatio,
+                              @Value("${energy.upstream.hedge.enabled:true}") boolean hedgeEnabled,
+                              @Value("${energy.upstream.hedge.min-delay-ms:50}") long minHedgeDelayMs,
+                              MeterRegistry meterRegistry) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.budgetRatio = budgetRatio;
+        this.hedgeEnabled = hedgeEnabled;
+        this.minHedgeDelayMs = minHedgeDelayMs;
+
+        this.retries = Counter.builder("energy.upstream.retries")
+            .description("Upstream calls repeated after a failure")
+            .register(meterRegistry);
+        this.hedges = Counter.builder("energy.upstream.hedges")
+            .description("Second calls sent because the first one was slow")
+            .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("energy.upstream.retry.budget.exhausted")
+            .description("Retries or hedges skipped because the budget was used up")
+            .register(meterRegistry);
+    }
+
+    // Runs the call with retries (and hedging, when enabled) and returns the first good answer
+    public <T> T call(Supplier<T> upstreamCall) {
+        depositBudget();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return hedgeEnabled ? callHedged(upstreamCall) : timed(upstreamCall);
+
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+                if (!withdrawBudget()) {
+                    budgetExhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                sleep(backoffMs(attempt));
+            }
+        }
+    }
+
+    // p95 of recent successful calls in milliseconds, or -1 when we don't have enough samples
+    public synchronized long latencyP95() {
+        if (latencyCount < MIN_LATENCY_SAMPLES) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(0.95 * latencyCount) - 1];
+    }
+
+    // Only errors that another try might fix: network problems, 5xx and "too many requests".
+    // UpstreamBusyException is our own limit - trying again would only make it worse
+    static boolean isRetryable(RuntimeException e) {
+        return e instanceof ResourceAccessException
+            || e instanceof HttpServerErrorException
+            || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+
+    // Waits for the first call up to the p95; if it's still running, sends a second one
+    private <T> T callHedged(Supplier<T> upstreamCall) {
+        long p95 = latencyP95();
+        CompletableFuture<T> first = start(upstreamCall);
+        if (p95 < 0) {
+            return await(first);
+        }
+
+        try {
+            return first.get(Math.max(p95, minHedgeDelayMs), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Slow - fall through and hedge
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            first.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Przerwano oczekiwanie na odpowiedź API", e);
+        }
+
+        if (!withdrawBudget()) {
+            budgetExhausted.increment();
+            return await(first);
+        }
+        hedges.increment();
+        CompletableFuture<T> second = start(upstreamCall);
+
+        // First good answer wins; we only fail when both calls failed
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> call : Arrays.asList(first, second)) {
+            call.whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            return await(winner);
+        } finally {
+            // Stop the loser now, so it gives back its bulkhead permit instead of holding it
+            // until the read timeout (cancelling a finished call does nothing)
+            first.cancel(true);
+            second.cancel(true);
+        }
+    }
+
+    // Starts one call on its own virtual thread. Cancelling the returned future interrupts
+    // that thread, which also breaks off a blocking socket read
+    private <T> CompletableFuture<T> start(Supplier<T> upstreamCall) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = hedgeExecutor.submit(() -> {
+            try {
+                result.complete(timed(upstreamCall));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // Runs one call and remembers how long it took when it worked
+    private <T> T timed(Supplier<T> upstreamCall) {
+        long start = System.nanoTime();
+        T result = upstreamCall.get();
+        recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private synchronized void recordLatency(long millis) {
+        latencies[latencyNext] = millis;
+        latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+    }
+
+    // Every normal call earns a fraction of an extra call
+    private synchronized void depositBudget() {
+        budget = Math.min(MAX_BUDGET, budget + budgetRatio);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    // Full jitter: random wait between 0 and base * 2^(attempt - 1), never above the maximum
+    private long backoffMs(int attempt) {
+        long cap = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Przerwano oczekiwanie przed ponowieniem", e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new RuntimeException(cause);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+}
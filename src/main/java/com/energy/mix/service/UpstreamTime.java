@@ -0,0 +1,118 @@
+package com.energy.mix.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+// Time handling for the energy API.
+// Internally every interval is a "slot": the number of 30-minute steps since 1970-01-01T00:00Z,
+// so intervals are plain ints. The API always talks UTC ("2024-01-01T00:30Z"), while days and
+// the times we show to people follow the GB grid clock (Europe/London), so a day can have
+// 46, 48 or 50 intervals.
+final class UpstreamTime {
+
+    static final ZoneId LONDON = ZoneId.of("Europe/London");
+    static final int MINUTES_PER_SLOT = 30;
+
+    // Formatters are thread-safe, so we build them once
+    private static final DateTimeFormatter API_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter RESPONSE_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(LONDON);
+
+    private UpstreamTime() {}
+
+    // Today on the GB grid (not the server's own time zone)
+    static LocalDate today() {
+        return LocalDate.now(LONDON);
+    }
+
+    // Slot in which the given UK day starts
+    static int dayStartSlot(LocalDate date) {
+        return (int) (date.atStartOfDay(LONDON).toEpochSecond() / (MINUTES_PER_SLOT * 60));
+    }
+
+    // Number of 30-minute intervals in a UK day: 48, or 46/50 when the clocks change
+    static int slotsInDay(LocalDate date) {
+        return dayStartSlot(date.plusDays(1)) - dayStartSlot(date);
+    }
+
+    // Start of the UK day written the way the API expects it, e.g. "2024-06-01T23:00Z"
+    static String formatForApi(LocalDate date) {
+        return API_FORMAT.format(date.atStartOfDay(LONDON).toInstant());
+    }
+
+    // Slot written for people, in UK local time, e.g. "2024-06-01 13:00"
+    static String formatSlot(int slot) {
+        return RESPONSE_FORMAT.format(Instant.ofEpochSecond((long) slot * MINUTES_PER_SLOT * 60));
+    }
+
+    // Half-hour of the UK local day in which the slot starts (0 = 00:00, 47 = 23:30).
+    // On the day the clocks go back two slots share the same number
+    static int localSlotOfDay(int slot) {
+        long epochSecond = (long) slot * MINUTES_PER_SLOT * 60;
+        int offsetSeconds = LONDON.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        return (int) Math.floorMod((epochSecond + offsetSeconds) / (MINUTES_PER_SLOT * 60), 48L);
+    }
+
+    // UK local time (as a user would type it) in minutes since the epoch
+    static long toEpochMinutes(LocalDateTime localTime) {
+        return localTime.atZone(LONDON).toEpochSecond() / 60;
+    }
+
+    // Reads an API timestamp ("2024-01-01T00:30Z" or "2024-01-01T00:30:00Z") straight into
+    // slot numbers without building any String or date objects on the way
+    static int parseSlot(CharSequence text) {
+        return (int) Math.floorDiv(parseEpochMinutes(text), MINUTES_PER_SLOT);
+    }
+
+    // Same as parseSlot but in minutes since the epoch
+    static long parseEpochMinutes(CharSequence text) {
+        int length = text.length();
+        boolean withSeconds = length == 20 && text.charAt(16) == ':';
+        if ((length != 17 && !withSeconds)
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(length - 1) != 'Z') {
+            throw new IllegalArgumentException("Nieprawidłowy format czasu: " + text);
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        if (withSeconds) {
+            digits(text, 17, 2);
+        }
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59) {
+            throw new IllegalArgumentException("Nieprawidłowy format czasu: " + text);
+        }
+
+        return daysFromCivil(year, month, day) * 1440L + hour * 60L + minute;
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Nieprawidłowy format czasu: " + text);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Days since 1970-01-01 for a calendar date (Howard Hinnant's days_from_civil)
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * 146097 + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,183 @@
+package com.energy.mix.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tiny stand-in for a Redis server, just enough for RedisGenerationCache:
+// PING, GET, SET (with PX and NX), DEL and EVAL of the unlock script
+class FakeRedisServer implements AutoCloseable {
+
+    private record Value(byte[] data, long expiresAt) {}
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Value> store = new ConcurrentHashMap<>();
+
+    FakeRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        Thread.ofVirtual().start(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().start(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (true) {
+                List<byte[]> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                out.write(execute(command));
+                out.flush();
+            }
+        } catch (IOException ignored) {
+            // Client went away
+        }
+    }
+
+    private byte[] execute(List<byte[]> command) {
+        String name = text(command.get(0)).toUpperCase();
+        switch (name) {
+            case "PING":
+                return simple("PONG");
+            case "GET": {
+                Value value = live(text(command.get(1)));
+                return value == null ? nullBulk() : bulk(value.data());
+            }
+            case "SET": {
+                String key = text(command.get(1));
+                long expiresAt = Long.MAX_VALUE;
+                boolean onlyIfAbsent = false;
+                for (int i = 3; i < command.size(); i++) {
+                    String option = text(command.get(i)).toUpperCase();
+                    if (option.equals("PX")) {
+                        expiresAt = System.currentTimeMillis() + Long.parseLong(text(command.get(++i)));
+                    } else if (option.equals("NX")) {
+                        onlyIfAbsent = true;
+                    }
+                }
+                Value value = new Value(command.get(2), expiresAt);
+                if (onlyIfAbsent) {
+                    synchronized (store) {
+                        if (live(key) != null) {
+                            return nullBulk();
+                        }
+                        store.put(key, value);
+                    }
+                } else {
+                    store.put(key, value);
+                }
+                return simple("OK");
+            }
+            case "DEL":
+                return integer(store.remove(text(command.get(1))) == null ? 0 : 1);
+            case "EVAL": {
+                // Only the "delete if value matches" script is supported
+                String key = text(command.get(3));
+                synchronized (store) {
+                    Value value = live(key);
+                    if (value != null && Arrays.equals(value.data(), command.get(4))) {
+                        store.remove(key);
+                        return integer(1);
+                    }
+                    return integer(0);
+                }
+            }
+            default:
+                return ("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private Value live(String key) {
+        Value value = store.get(key);
+        if (value != null && value.expiresAt() <= System.currentTimeMillis()) {
+            store.remove(key, value);
+            return null;
+        }
+        return value;
+    }
+
+    private List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            in.read(); // '$'
+            int length = Integer.parseInt(readLine(in));
+            parts.add(in.readNBytes(length));
+            readLine(in);
+        }
+        return parts;
+    }
+
+    private String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) {
+                throw new IOException("closed");
+            }
+            line.write(b);
+        }
+        in.read();
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] simple(String value) {
+        return ("+" + value + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] integer(long value) {
+        return (":" + value + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] nullBulk() {
+        return "$-1\r\n".getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bulk(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(("$" + data.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(data);
+        out.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
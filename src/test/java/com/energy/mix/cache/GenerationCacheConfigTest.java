@@ -0,0 +1,27 @@
+package com.energy.mix.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationCacheConfigTest {
+
+    private final GenerationCacheConfig config = new GenerationCacheConfig();
+
+    // Test: The backend property should decide which cache we get
+    @Test
+    void generationCache_ShouldFollowBackendProperty() {
+        try (GenerationCache memory = config.generationCache("memory", 300, 10, "localhost", 6379, 500);
+             GenerationCache redis = config.generationCache("Redis", 300, 10, "localhost", 6379, 500)) {
+            assertInstanceOf(InMemoryGenerationCache.class, memory);
+            assertInstanceOf(RedisGenerationCache.class, redis);
+        }
+    }
+
+    // Test: A typo in the backend name should stop the start, not quietly pick one
+    @Test
+    void generationCache_WithUnknownBackend_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> config.generationCache("memcached", 300, 10, "localhost", 6379, 500));
+    }
+}
@@ -0,0 +1,33 @@
+package com.energy.mix.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryGenerationCacheTest {
+
+    // Test: Values should be gone once their time-to-live has passed
+    @Test
+    void get_AfterTtl_ShouldReturnNull() {
+        InMemoryGenerationCache cache = new InMemoryGenerationCache(0, 10);
+
+        cache.put("generation:2024-01-01", new byte[] {1, 2});
+
+        assertNull(cache.get("generation:2024-01-01"));
+    }
+
+    // Test: Only one caller gets the lease until it is given back
+    @Test
+    void tryLock_ShouldGiveLeaseToOnlyOneCaller() {
+        InMemoryGenerationCache cache = new InMemoryGenerationCache(300, 10);
+
+        String token = cache.tryLock("generation:2024-01-01");
+
+        assertNotNull(token);
+        assertNull(cache.tryLock("generation:2024-01-01"));
+        cache.unlock("generation:2024-01-01", "not-my-token");
+        assertNull(cache.tryLock("generation:2024-01-01"));
+        cache.unlock("generation:2024-01-01", token);
+        assertNotNull(cache.tryLock("generation:2024-01-01"));
+    }
+}
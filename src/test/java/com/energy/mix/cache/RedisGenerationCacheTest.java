@@ -0,0 +1,92 @@
+package com.energy.mix.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisGenerationCacheTest {
+
+    private FakeRedisServer server;
+    private RedisGenerationCache cache;
+
+    // Every test gets its own fake Redis on a free port
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeRedisServer();
+        cache = new RedisGenerationCache("localhost", server.getPort(), 500, 300, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        cache.close();
+        server.close();
+    }
+
+    // Test: Bytes we put in should come back unchanged (binary data, not text)
+    @Test
+    void get_AfterPut_ShouldReturnSameBytes() {
+        byte[] value = {1, 0, -1, 13, 10, 42};
+
+        cache.put("generation:2024-01-01", value);
+
+        assertArrayEquals(value, cache.get("generation:2024-01-01"));
+        assertNull(cache.get("generation:2024-01-02"));
+    }
+
+    // Test: Two replicas talking to the same server - only one of them gets the lease
+    @Test
+    void tryLock_FromTwoReplicas_ShouldGiveLeaseToOnlyOne() {
+        RedisGenerationCache otherReplica = new RedisGenerationCache("localhost", server.getPort(), 500, 300, 10);
+
+        String token = cache.tryLock("generation:2024-01-01");
+        assertNotNull(token);
+        assertNull(otherReplica.tryLock("generation:2024-01-01"));
+
+        // A wrong token must not free the lease, the right one does
+        otherReplica.unlock("generation:2024-01-01", "not-my-token");
+        assertNull(otherReplica.tryLock("generation:2024-01-01"));
+        cache.unlock("generation:2024-01-01", token);
+        assertNotNull(otherReplica.tryLock("generation:2024-01-01"));
+
+        otherReplica.close();
+    }
+
+    // Test: With Redis down the cache acts as empty and lets us refresh, instead of failing requests
+    @Test
+    void whenRedisIsDown_ShouldBehaveLikeEmptyCache() throws Exception {
+        int freePort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            freePort = socket.getLocalPort();
+        }
+        RedisGenerationCache down = new RedisGenerationCache("localhost", freePort, 200, 300, 10);
+
+        down.put("generation:2024-01-01", new byte[] {1});
+
+        assertNull(down.get("generation:2024-01-01"));
+        assertNotNull(down.tryLock("generation:2024-01-01"));
+        down.close();
+    }
+
+    // Test: A Redis that doesn't answer should cost the timeout once, then calls fall back at once
+    @Test
+    void whenRedisHangs_ShouldStopWaitingAfterFirstFailure() throws Exception {
+        // Accepts connections (backlog) but never answers
+        try (ServerSocket silent = new ServerSocket(0)) {
+            RedisGenerationCache hanging = new RedisGenerationCache("localhost", silent.getLocalPort(), 200, 300, 10);
+
+            assertNull(hanging.get("generation:2024-01-01"));
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                assertNull(hanging.get("generation:2024-01-01"));
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(millis < 200, "10 calls took " + millis + " ms");
+            hanging.close();
+        }
+    }
+}
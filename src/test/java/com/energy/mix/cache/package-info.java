@@ -0,0 +1 @@
+package com.energy.mix.cache;
\ No newline at end of file
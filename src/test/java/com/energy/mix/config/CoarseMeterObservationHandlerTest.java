@@ -0,0 +1,30 @@
+package com.energy.mix.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoarseMeterObservationHandlerTest {
+
+    // Test: Only the coarse steps and observations that aren't ours should get timers
+    @Test
+    void supportsContext_ShouldTimeOnlyCoarseSteps() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new CoarseMeterObservationHandler(meterRegistry));
+
+        for (String name : new String[] {"energy.mix", "energy.upstream", "energy.day", "energy.parse", "energy.window", "http.server.requests"}) {
+            Observation.start(name, registry).stop();
+        }
+
+        assertEquals(1, meterRegistry.get("energy.mix").timer().count());
+        assertEquals(1, meterRegistry.get("energy.upstream").timer().count());
+        assertEquals(1, meterRegistry.get("http.server.requests").timer().count());
+        assertNull(meterRegistry.find("energy.day").timer());
+        assertNull(meterRegistry.find("energy.parse").timer());
+        assertNull(meterRegistry.find("energy.window").timer());
+    }
+}
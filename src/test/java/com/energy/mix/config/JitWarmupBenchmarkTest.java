@@ -0,0 +1,93 @@
+package com.energy.mix.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Latency of the first 10,000 requests after start, without and with the JIT warmup.
+// The JIT state lives in the JVM, so every case runs in a fresh child JVM.
+// Requests go through the same controller -> service -> parser -> JSON path as JitWarmup.Pipeline.
+// Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class JitWarmupBenchmarkTest {
+
+    private static final int REQUESTS = 10_000;
+    private static final int WARMUP_ITERATIONS = 2_000;
+
+    // Benchmark: cold start against warmed-up start
+    @Test
+    void compareFirstRequests() throws Exception {
+        for (String mode : List.of("cold", "warm")) {
+            List<String> output = runChild(mode);
+            output.forEach(System.out::println);
+            assertTrue(output.stream().anyMatch(line -> line.startsWith(mode)), String.join("\n", output));
+        }
+    }
+
+    private List<String> runChild(String mode) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                JitWarmupBenchmarkTest.class.getName() + "$Child", mode)
+            .redirectErrorStream(true)
+            .start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            List<String> lines = reader.lines().filter(line -> line.startsWith(mode)).toList();
+            assertEquals(0, process.waitFor());
+            return lines;
+        }
+    }
+
+    // Runs in the child JVM: optional warmup, then REQUESTS timed one by one
+    static final class Child {
+
+        public static void main(String[] args) throws Exception {
+            String mode = args[0];
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+            try (JitWarmup.Pipeline pipeline = new JitWarmup.Pipeline(objectMapper)) {
+                long warmupStart = System.nanoTime();
+                if (mode.equals("warm")) {
+                    // Separate pipeline like in JitWarmup, so live requests start with empty state
+                    try (JitWarmup.Pipeline warmup = new JitWarmup.Pipeline(objectMapper)) {
+                        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                            warmup.request(i);
+                        }
+                    }
+                }
+                long warmupMillis = (System.nanoTime() - warmupStart) / 1_000_000;
+
+                long[] micros = new long[REQUESTS];
+                for (int i = 0; i < REQUESTS; i++) {
+                    long start = System.nanoTime();
+                    pipeline.request(i);
+                    micros[i] = (System.nanoTime() - start) / 1000;
+                }
+
+                System.out.printf("%s warmup=%d ms%n", mode, warmupMillis);
+                print(mode, micros, 0, 100);
+                print(mode, micros, 100, 1_000);
+                print(mode, micros, 1_000, 5_000);
+                print(mode, micros, 5_000, REQUESTS);
+                long total = Arrays.stream(micros).sum();
+                System.out.printf("%s total for %d requests: %d ms%n", mode, REQUESTS, total / 1000);
+            }
+        }
+
+        private static void print(String mode, long[] micros, int from, int to) {
+            long[] part = Arrays.copyOfRange(micros, from, to);
+            Arrays.sort(part);
+            double mean = Arrays.stream(part).average().orElse(0);
+            System.out.printf("%s requests %5d-%5d: mean=%7.0f us  p50=%6d us  p99=%7d us%n",
+                mode, from + 1, to, mean, part[part.length / 2], part[(int) (part.length * 0.99)]);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.energy.mix.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JitWarmupTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // Test: Every kind of warmup request should go through the whole pipeline without the network
+    @Test
+    void pipeline_ShouldAnswerEveryRequestKind() throws Exception {
+        try (JitWarmup.Pipeline pipeline = new JitWarmup.Pipeline(objectMapper)) {
+            for (int i = 0; i < 16; i++) {
+                assertTrue(pipeline.request(i) > 50, "request " + i);
+            }
+        }
+    }
+
+    // Test: Recorded answers should be moved to the requested days, one copy per day
+    @Test
+    void replay_ShouldShiftRecordingToRequestedDays() throws Exception {
+        JsonNode generation = objectMapper.readTree("""
+            {"data": [
+                {"from": "2024-01-15T00:00Z", "to": "2024-01-15T00:30Z", "generationmix": [{"fuel": "wind", "perc": 30.0}]},
+                {"from": "2024-01-15T00:30Z", "to": "2024-01-15T01:00Z", "generationmix": [{"fuel": "wind", "perc": 40.0}]}
+            ]}
+            """);
+        ReplayRequestFactory replay = new ReplayRequestFactory(objectMapper, new JsonNode[] {generation}, generation);
+        RestTemplate restTemplate = new RestTemplate(replay);
+
+        JsonNode oneDay = objectMapper.readTree(restTemplate.getForObject(
+            "https://api.carbonintensity.org.uk/generation/2025-06-01T23:00Z/2025-06-02T23:00Z", String.class));
+        JsonNode twoDays = objectMapper.readTree(restTemplate.getForObject(
+            "https://api.carbonintensity.org.uk/intensity/2025-06-01T23:00Z/2025-06-03T23:00Z", String.class));
+
+        assertEquals(2, oneDay.path("data").size());
+        assertEquals("2025-06-01T23:00Z", oneDay.path("data").get(0).path("from").asText());
+        assertEquals("2025-06-02T00:00Z", oneDay.path("data").get(1).path("to").asText());
+        assertEquals(4, twoDays.path("data").size());
+        assertEquals("2025-06-02T23:30Z", twoDays.path("data").get(3).path("from").asText());
+    }
+
+    // Test: While warming up we should tell Spring we're not ready for traffic
+    @Test
+    void run_WhenEnabled_ShouldRefuseTrafficWhileWarmingUp() {
+        List<Object> events = new ArrayList<>();
+        JitWarmup warmup = new JitWarmup(objectMapper, events::add, true, 8, 60);
+
+        warmup.run(null);
+
+        assertEquals(1, events.size());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, ((AvailabilityChangeEvent<?>) events.get(0)).getState());
+    }
+
+    // Test: Switched off, the warmup should do nothing at all
+    @Test
+    void run_WhenDisabled_ShouldDoNothing() {
+        List<Object> events = new ArrayList<>();
+        JitWarmup warmup = new JitWarmup(objectMapper, events::add, false, 8, 60);
+
+        warmup.run(null);
+
+        assertTrue(events.isEmpty());
+    }
+}
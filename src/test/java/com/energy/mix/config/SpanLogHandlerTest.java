@@ -0,0 +1,68 @@
+package com.energy.mix.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpanLogHandlerTest {
+
+    // Test: A child span should join its parent's trace and get its own id
+    @Test
+    void onStart_WithParent_ShouldShareTraceId() {
+        ObservationRegistry registry = registry(1.0);
+
+        Observation parent = Observation.start("parent", registry);
+        Observation child = Observation.createNotStarted("child", registry).parentObservation(parent).start();
+        child.stop();
+        parent.stop();
+
+        SpanLogHandler.Span parentSpan = parent.getContextView().get(SpanLogHandler.Span.class);
+        SpanLogHandler.Span childSpan = child.getContextView().get(SpanLogHandler.Span.class);
+        assertTrue(childSpan.sampled());
+        assertEquals(parentSpan.traceId(), childSpan.traceId());
+        assertNotEquals(parentSpan.spanId(), childSpan.spanId());
+    }
+
+    // Test: When the root isn't sampled, nothing below it should be either
+    @Test
+    void onStart_RootNotSampled_ShouldSkipWholeTrace() {
+        ObservationRegistry registry = registry(0.0);
+
+        Observation parent = Observation.start("parent", registry);
+        Observation child;
+        try (Observation.Scope scope = parent.openScope()) {
+            // Started inside the parent's scope, so the parent is picked up automatically
+            child = Observation.start("child", registry);
+            child.stop();
+        }
+        parent.stop();
+
+        SpanLogHandler.Span parentSpan = parent.getContextView().get(SpanLogHandler.Span.class);
+        SpanLogHandler.Span childSpan = child.getContextView().get(SpanLogHandler.Span.class);
+        assertFalse(parentSpan.sampled());
+        assertFalse(childSpan.sampled());
+    }
+
+    // Test: The duration should use a dot even when the JVM runs with a Polish locale
+    @Test
+    void millis_WithPolishLocale_ShouldUseDot() {
+        Locale before = Locale.getDefault();
+        Locale.setDefault(Locale.of("pl", "PL"));
+        try {
+            assertEquals("1.235", SpanLogHandler.millis(1_234_567));
+        } finally {
+            Locale.setDefault(before);
+        }
+    }
+
+    // Helper: a registry that sends every observation to our handler
+    private ObservationRegistry registry(double sampleRate) {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new SpanLogHandler(sampleRate));
+        return registry;
+    }
+}
@@ -1,7 +1,15 @@
 package com.energy.mix.controller;
 
-import com.energy.mix.model.EnergyMix;
+import com.energy.mix.model.DailyMix;
+import com.energy.mix.model.Fuel;
+import com.energy.mix.model.FuelMix;
+import com.energy.mix.service.CleanTaxonomy;
 import com.energy.mix.service.EnergyService;
+import com.energy.mix.service.OptimizationMode;
+import com.energy.mix.service.UpstreamBusyException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -9,11 +17,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,6 +36,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @AutoConfigureMockMvc
 class EnergyControllerIntegrationTest {
 
+    // averageMix of createEnergyMix as a client decodes it
+    private static final Map<String, Object> EXPECTED_AVERAGES =
+        Map.of("biomass", 15.0, "nuclear", 25.0, "wind", 20.0, "solar", 5.0, "gas", 35.0);
+
     // This lets us simulate a web browser making requests to our app
     // Without actually starting a real web server
     @Autowired
@@ -40,14 +56,14 @@ class EnergyControllerIntegrationTest {
     @Test
     void getEnergyMix_ShouldReturnOkStatus() throws Exception {
         // Let's create some fake energy data that looks real
-        List<EnergyMix> mockData = Arrays.asList(
+        List<DailyMix> mockData = Arrays.asList(
             createEnergyMix("2024-01-01", 65.5),
             createEnergyMix("2024-01-02", 70.2),
             createEnergyMix("2024-01-03", 68.8)
         );
         
         // Tell our fake service: "When someone asks for energy mix data, return this fake data"
-        when(energyService.getEnergyMixForThreeDays()).thenReturn(mockData);
+        when(energyService.getEnergyMixForThreeDays(CleanTaxonomy.DEFAULT)).thenReturn(mockData);
 
         // Now let's simulate a web browser making a request to our app:
         // - Go to the URL "/api/energy/mix"
@@ -61,6 +77,76 @@ class EnergyControllerIntegrationTest {
                 .andExpect(jsonPath("$.length()").value(3));
     }
 
+    // Test: Clients asking for CBOR should get CBOR that decodes back to the same data
+    @Test
+    void getEnergyMix_WithCborAccept_ShouldRoundTrip() throws Exception {
+        List<DailyMix> mockData = Arrays.asList(
+            createEnergyMix("2024-01-01", 65.5),
+            createEnergyMix("2024-01-02", 70.2)
+        );
+        when(energyService.getEnergyMixForThreeDays(CleanTaxonomy.DEFAULT)).thenReturn(mockData);
+
+        byte[] body = mockMvc.perform(get("/api/energy/mix").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Decode the binary answer and check it is the same data we started with
+        List<Map<String, Object>> decoded = new CBORMapper().readValue(body, new TypeReference<>() {});
+        assertEquals(2, decoded.size());
+        assertEquals("2024-01-02", decoded.get(1).get("date"));
+        assertEquals(70.2, decoded.get(1).get("cleanEnergyPercentage"));
+        assertEquals(EXPECTED_AVERAGES, decoded.get(0).get("averageMix"));
+    }
+
+    // Test: Same round trip for Smile, the other binary format
+    @Test
+    void getEnergyMix_WithSmileAccept_ShouldRoundTrip() throws Exception {
+        List<DailyMix> mockData = List.of(createEnergyMix("2024-01-01", 65.5));
+        when(energyService.getEnergyMixForThreeDays(CleanTaxonomy.DEFAULT)).thenReturn(mockData);
+
+        byte[] body = mockMvc.perform(get("/api/energy/mix").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Map<String, Object>> decoded = new SmileMapper().readValue(body, new TypeReference<>() {});
+        assertEquals(1, decoded.size());
+        assertEquals(65.5, decoded.get(0).get("cleanEnergyPercentage"));
+        assertEquals(EXPECTED_AVERAGES, decoded.get(0).get("averageMix"));
+    }
+
+    // Test: Without an Accept header we still answer in JSON
+    @Test
+    void getEnergyMix_WithoutAccept_ShouldDefaultToJson() throws Exception {
+        when(energyService.getEnergyMixForThreeDays(CleanTaxonomy.DEFAULT)).thenReturn(List.of(createEnergyMix("2024-01-01", 65.5)));
+
+        mockMvc.perform(get("/api/energy/mix"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"));
+    }
+
+    // Test: When the energy API is overloaded, do we shed load with 503 and a Retry-After hint?
+    @Test
+    void getEnergyMix_WhenUpstreamBusy_ShouldReturnServiceUnavailable() throws Exception {
+        when(energyService.getEnergyMixForThreeDays(CleanTaxonomy.DEFAULT)).thenThrow(new UpstreamBusyException(2));
+
+        mockMvc.perform(get("/api/energy/mix"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    // Test: Same for optimal charging - 503, not a generic 500
+    @Test
+    void getOptimalCharging_WhenUpstreamBusy_ShouldReturnServiceUnavailable() throws Exception {
+        when(energyService.findOptimalChargingWindow(2, OptimizationMode.CLEAN, 0.5, CleanTaxonomy.DEFAULT)).thenThrow(new UpstreamBusyException(5));
+
+        mockMvc.perform(get("/api/energy/optimal-charging")
+                .param("hours", "2"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
     // Test: When someone asks for optimal charging with good input, do they get a good result?
     @Test
     void getOptimalCharging_WithValidParameter_ShouldReturnOkStatus() throws Exception {
@@ -72,7 +158,7 @@ class EnergyControllerIntegrationTest {
         mockResult.put("requestedHours", 2);
         
         // Tell our fake service what to return
-        when(energyService.findOptimalChargingWindow(2)).thenReturn(mockResult);
+        when(energyService.findOptimalChargingWindow(2, OptimizationMode.CLEAN, 0.5, CleanTaxonomy.DEFAULT)).thenReturn(mockResult);
 
         // Simulate a web request with a good parameter: hours=2
         mockMvc.perform(get("/api/energy/optimal-charging")
@@ -104,7 +190,7 @@ class EnergyControllerIntegrationTest {
     @Test
     void getOptimalCharging_WithServiceException_ShouldReturnBadRequest() throws Exception {
         // Tell our fake service to throw an exception when called
-        when(energyService.findOptimalChargingWindow(3))
+        when(energyService.findOptimalChargingWindow(3, OptimizationMode.CLEAN, 0.5, CleanTaxonomy.DEFAULT))
             .thenThrow(new IllegalArgumentException("Some service error"));
 
         // Simulate a request that should trigger the service error
@@ -116,6 +202,45 @@ class EnergyControllerIntegrationTest {
                 .andExpect(content().string("Some service error"));
     }
 
+    // Test: When someone asks for the lowest carbon intensity, does the mode reach the service?
+    @Test
+    void getOptimalCharging_WithIntensityMode_ShouldReturnOkStatus() throws Exception {
+        Map<String, Object> mockResult = new HashMap<>();
+        mockResult.put("startTime", "2024-01-01 01:00");
+        mockResult.put("averageCarbonIntensity", 110.0);
+        mockResult.put("mode", "intensity");
+
+        when(energyService.findOptimalChargingWindow(2, OptimizationMode.INTENSITY, 0.5, CleanTaxonomy.DEFAULT)).thenReturn(mockResult);
+
+        mockMvc.perform(get("/api/energy/optimal-charging")
+                .param("hours", "2")
+                .param("mode", "intensity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageCarbonIntensity").value(110.0));
+    }
+
+    // Test: An unknown mode should be a bad request, not a server error
+    @Test
+    void getOptimalCharging_WithUnknownMode_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/energy/optimal-charging")
+                .param("hours", "2")
+                .param("mode", "cheapest"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Nieznany tryb optymalizacji: cheapest"));
+    }
+
+    // Test: weight=NaN is a number to Spring, but not a weight - 400 before the service is called
+    @Test
+    void getOptimalCharging_WithNaNWeight_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/energy/optimal-charging")
+                .param("hours", "2")
+                .param("mode", "blend")
+                .param("weight", "NaN"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Waga musi być między 0 a 1"));
+        verifyNoInteractions(energyService);
+    }
+
     // Test: When someone forgets to say how many hours they need, does the app complain?
     @Test
     void getOptimalCharging_WithoutParameter_ShouldReturnBadRequest() throws Exception {
@@ -125,19 +250,125 @@ class EnergyControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    // Test: Statistics for a range of days should come back as JSON
+    @Test
+    void getStatistics_WithRange_ShouldReturnOkStatus() throws Exception {
+        Map<String, Object> mockResult = Map.of(
+            "from", "2024-01-01",
+            "to", "2024-01-31",
+            "fuels", Map.of("wind", Map.of("min", 2.0, "p50", 21.5, "max", 55.0)),
+            "days", List.of(Map.of("date", "2024-01-01", "cleanEnergyPercentage", 61.2))
+        );
+        when(energyService.getFuelStatistics(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))).thenReturn(mockResult);
+
+        mockMvc.perform(get("/api/energy/statistics")
+                .param("from", "2024-01-01")
+                .param("to", "2024-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fuels.wind.p50").value(21.5))
+                .andExpect(jsonPath("$.days[0].cleanEnergyPercentage").value(61.2));
+    }
+
+    // Test: A bad range from the service should be a bad request with its message
+    @Test
+    void getStatistics_WithBadRange_ShouldReturnBadRequest() throws Exception {
+        when(energyService.getFuelStatistics(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 1)))
+            .thenThrow(new IllegalArgumentException("Zakres dat musi mieć od 1 do 366 dni"));
+
+        mockMvc.perform(get("/api/energy/statistics")
+                .param("from", "2024-01-02")
+                .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Zakres dat musi mieć od 1 do 366 dni"));
+    }
+
+    // Test: The heatmap should come back as labels plus a plain array of numbers
+    @Test
+    void getHeatmap_ShouldReturnDenseGrid() throws Exception {
+        Map<String, Object> mockResult = Map.of(
+            "days", List.of("2024-01-01"),
+            "times", List.of("00:00", "01:00"),
+            "values", List.<Double[]>of(new Double[] {53.5, null})
+        );
+        when(energyService.getCleanEnergyHeatmap(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), "hour"))
+            .thenReturn(mockResult);
+
+        mockMvc.perform(get("/api/energy/heatmap")
+                .param("from", "2024-01-01")
+                .param("to", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.times[1]").value("01:00"))
+                .andExpect(jsonPath("$.values[0][0]").value(53.5));
+    }
+
+    // Test: A comma-separated power profile should reach the service as numbers
+    @Test
+    void getOptimalChargingForProfile_ShouldReturnOkStatus() throws Exception {
+        when(energyService.findOptimalChargingWindowForProfile(aryEq(new double[] {7.4, 5.0, 2.5})))
+            .thenReturn(Map.of("startTime", "2024-01-01 01:00", "cleanEnergyPercentage", 59.0));
+
+        mockMvc.perform(get("/api/energy/optimal-charging-profile")
+                .param("powerKw", "7.4,5.0,2.5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cleanEnergyPercentage").value(59.0));
+    }
+
+    // Test: A power the service refuses (like Infinity) should come back as 400, not 200 or 500
+    @Test
+    void getOptimalChargingForProfile_WithInfinitePower_ShouldReturnBadRequest() throws Exception {
+        when(energyService.findOptimalChargingWindowForProfile(aryEq(new double[] {7.4, Double.POSITIVE_INFINITY})))
+            .thenThrow(new IllegalArgumentException("Moc ładowania musi być skończona i nieujemna"));
+
+        mockMvc.perform(get("/api/energy/optimal-charging-profile")
+                .param("powerKw", "7.4,Infinity"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Moc ładowania musi być skończona i nieujemna"));
+    }
+
+    // Test: A named profile should be passed to the service as its taxonomy
+    @Test
+    void getEnergyMix_WithProfile_ShouldUseTaxonomy() throws Exception {
+        when(energyService.getEnergyMixForThreeDays(CleanTaxonomy.fromParams("low-carbon", null)))
+            .thenReturn(List.of(createEnergyMix("2024-01-01", 50.0)));
+
+        mockMvc.perform(get("/api/energy/mix").param("profile", "low-carbon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cleanEnergyPercentage").value(50.0));
+    }
+
+    // Test: Unknown profiles or fuels are the caller's mistake - 400
+    @Test
+    void getEnergyMix_WithUnknownSource_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/energy/mix").param("sources", "wind,tidal"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/energy/optimal-charging").param("hours", "2").param("profile", "green"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Test: Own list of clean fuels for the charging window
+    @Test
+    void getOptimalCharging_WithSources_ShouldUseTaxonomy() throws Exception {
+        Map<String, Object> mockResult = new HashMap<>();
+        mockResult.put("cleanEnergyPercentage", 40.0);
+        when(energyService.findOptimalChargingWindow(2, OptimizationMode.CLEAN, 0.5, CleanTaxonomy.fromParams(null, "wind,solar")))
+            .thenReturn(mockResult);
+
+        mockMvc.perform(get("/api/energy/optimal-charging").param("hours", "2").param("sources", "wind,solar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cleanEnergyPercentage").value(40.0));
+    }
+
     // Helper method to create fake energy data for testing
-    // This just makes a EnergyMix object with some sample numbers
-    private EnergyMix createEnergyMix(String date, double cleanPercentage) {
-        EnergyMix mix = new EnergyMix();
-        mix.setDate(date);
-        mix.setCleanEnergyPercentage(cleanPercentage);
-        mix.setAverageMix(Map.of(
-            "biomass", 15.0,
-            "nuclear", 25.0,
-            "wind", 20.0,
-            "solar", 5.0,
-            "gas", 35.0
-        ));
-        return mix;
+    // This just makes a DailyMix object with some sample numbers
+    private DailyMix createEnergyMix(String date, double cleanPercentage) {
+        double[] percentages = new double[Fuel.values().length];
+        Arrays.fill(percentages, Double.NaN);
+        percentages[Fuel.BIOMASS.ordinal()] = 15.0;
+        percentages[Fuel.NUCLEAR.ordinal()] = 25.0;
+        percentages[Fuel.WIND.ordinal()] = 20.0;
+        percentages[Fuel.SOLAR.ordinal()] = 5.0;
+        percentages[Fuel.GAS.ordinal()] = 35.0;
+        FuelMix averageMix = new FuelMix(percentages);
+        return new DailyMix(date, averageMix, cleanPercentage);
     }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.energy.mix.controller;
 
-import com.energy.mix.model.EnergyMix;
+import com.energy.mix.model.DailyMix;
+import com.energy.mix.model.Fuel;
+import com.energy.mix.model.FuelMix;
+import com.energy.mix.service.CleanTaxonomy;
 import com.energy.mix.service.EnergyService;
+import com.energy.mix.service.OptimizationMode;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -33,28 +37,31 @@ class EnergyControllerTest {
     @Test
     void getEnergyMix_ShouldReturnEnergyMixList() {
         // Here's the fake data we want our fake service to return
-        List<EnergyMix> expectedMix = Arrays.asList(
+        List<DailyMix> expectedMix = Arrays.asList(
             createEnergyMix("2024-01-01", 65.5),
             createEnergyMix("2024-01-02", 70.2),
             createEnergyMix("2024-01-03", 68.8)
         );
         
         // Tell our fake service: "When someone calls getEnergyMixForThreeDays, return this fake data"
-        when(energyService.getEnergyMixForThreeDays()).thenReturn(expectedMix);
+        when(energyService.getEnergyMixForThreeDays(CleanTaxonomy.DEFAULT)).thenReturn(expectedMix);
 
-        // Now let's actually call the method we're testing
-        List<EnergyMix> result = energyController.getEnergyMix();
+        // Now let's actually call the method we're testing (no profile, no sources)
+        ResponseEntity<?> response = energyController.getEnergyMix(null, null);
+        @SuppressWarnings("unchecked")
+        List<DailyMix> result = (List<DailyMix>) response.getBody();
 
         // Check if everything worked as expected:
-        // - Did we get some data back? (not null)
+        // - Was it a successful response (HTTP 200) with some data? (not null)
         // - Did we get exactly 3 days of data?
         // - Is the first day's data correct?
         // - And let's make sure our fake service was actually called
+        assertEquals(200, response.getStatusCodeValue());
         assertNotNull(result);
         assertEquals(3, result.size());
-        assertEquals("2024-01-01", result.get(0).getDate());
-        assertEquals(65.5, result.get(0).getCleanEnergyPercentage());
-        verify(energyService).getEnergyMixForThreeDays();
+        assertEquals("2024-01-01", result.get(0).date());
+        assertEquals(65.5, result.get(0).cleanEnergyPercentage());
+        verify(energyService).getEnergyMixForThreeDays(CleanTaxonomy.DEFAULT);
     }
 
     // Test: When someone asks for optimal charging with valid hours, they should get a good result
@@ -71,10 +78,10 @@ class EnergyControllerTest {
         expectedResult.put("requestedHours", 3);
         
         // Tell our fake service what to return
-        when(energyService.findOptimalChargingWindow(hours)).thenReturn(expectedResult);
+        when(energyService.findOptimalChargingWindow(hours, OptimizationMode.CLEAN, 0.5, CleanTaxonomy.DEFAULT)).thenReturn(expectedResult);
 
         // Call the actual method
-        ResponseEntity<?> response = energyController.getOptimalCharging(hours);
+        ResponseEntity<?> response = energyController.getOptimalCharging(hours, "clean", 0.5, null, null);
 
         // Check the response:
         // - Did we get a response?
@@ -91,7 +98,7 @@ class EnergyControllerTest {
         assertEquals(75.5, result.get("cleanEnergyPercentage"));
         
         // Make sure the service was actually called
-        verify(energyService).findOptimalChargingWindow(hours);
+        verify(energyService).findOptimalChargingWindow(hours, OptimizationMode.CLEAN, 0.5, CleanTaxonomy.DEFAULT);
     }
 
     // Test: When someone asks for 0 hours (too few), they should get an error
@@ -101,7 +108,7 @@ class EnergyControllerTest {
         int invalidHours = 0;
 
         // Call the method
-        ResponseEntity<?> response = energyController.getOptimalCharging(invalidHours);
+        ResponseEntity<?> response = energyController.getOptimalCharging(invalidHours, "clean", 0.5, null, null);
 
         // Check that we got a "bad request" error (HTTP 400)
         // and the right error message
@@ -117,7 +124,7 @@ class EnergyControllerTest {
         int invalidHours = 7;
 
         // Call the method
-        ResponseEntity<?> response = energyController.getOptimalCharging(invalidHours);
+        ResponseEntity<?> response = energyController.getOptimalCharging(invalidHours, "clean", 0.5, null, null);
 
         // Should get the same error as above
         assertNotNull(response);
@@ -131,11 +138,11 @@ class EnergyControllerTest {
         int hours = 2;
         
         // Tell our fake service to throw an exception when called
-        when(energyService.findOptimalChargingWindow(hours))
+        when(energyService.findOptimalChargingWindow(hours, OptimizationMode.CLEAN, 0.5, CleanTaxonomy.DEFAULT))
             .thenThrow(new IllegalArgumentException("Service error message"));
 
         // Call the method
-        ResponseEntity<?> response = energyController.getOptimalCharging(hours);
+        ResponseEntity<?> response = energyController.getOptimalCharging(hours, "clean", 0.5, null, null);
 
         // We should get a "bad request" error with the service's error message
         assertNotNull(response);
@@ -149,11 +156,11 @@ class EnergyControllerTest {
         int hours = 2;
         
         // Tell our fake service to throw a generic exception
-        when(energyService.findOptimalChargingWindow(hours))
+        when(energyService.findOptimalChargingWindow(hours, OptimizationMode.CLEAN, 0.5, CleanTaxonomy.DEFAULT))
             .thenThrow(new RuntimeException("Unexpected error"));
 
         // Call the method
-        ResponseEntity<?> response = energyController.getOptimalCharging(hours);
+        ResponseEntity<?> response = energyController.getOptimalCharging(hours, "clean", 0.5, null, null);
 
         // We should get an "internal server error" (HTTP 500)
         // with a generic error message
@@ -163,18 +170,16 @@ class EnergyControllerTest {
     }
 
     // Helper method to create fake energy mix data for testing
-    // This just creates a EnergyMix object with some sample data
-    private EnergyMix createEnergyMix(String date, double cleanPercentage) {
-        EnergyMix mix = new EnergyMix();
-        mix.setDate(date);
-        mix.setCleanEnergyPercentage(cleanPercentage);
-        mix.setAverageMix(Map.of(
-            "biomass", 15.0,
-            "nuclear", 25.0,
-            "wind", 20.0,
-            "solar", 5.0,
-            "gas", 35.0
-        ));
-        return mix;
+    // This just creates a DailyMix object with some sample data
+    private DailyMix createEnergyMix(String date, double cleanPercentage) {
+        double[] percentages = new double[Fuel.values().length];
+        Arrays.fill(percentages, Double.NaN);
+        percentages[Fuel.BIOMASS.ordinal()] = 15.0;
+        percentages[Fuel.NUCLEAR.ordinal()] = 25.0;
+        percentages[Fuel.WIND.ordinal()] = 20.0;
+        percentages[Fuel.SOLAR.ordinal()] = 5.0;
+        percentages[Fuel.GAS.ordinal()] = 35.0;
+        FuelMix averageMix = new FuelMix(percentages);
+        return new DailyMix(date, averageMix, cleanPercentage);
     }
 }
\ No newline at end of file
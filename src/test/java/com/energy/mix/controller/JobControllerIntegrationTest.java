@@ -0,0 +1,77 @@
+package com.energy.mix.controller;
+
+import com.energy.mix.service.EnergyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Whole application test of the job endpoints, with a fake EnergyService
+@SpringBootTest
+@AutoConfigureMockMvc
+class JobControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EnergyService energyService;
+
+    // Test: Submit a sweep, poll until it's done, then fetch the result
+    @Test
+    void submitScenarioSweep_ShouldRunInBackground() throws Exception {
+        when(energyService.sweepChargingScenarios(1, 4, 2)).thenReturn(Map.of("scenarios", 12));
+
+        String body = mockMvc.perform(post("/api/energy/jobs/scenario-sweep")
+                .param("maxSlots", "4"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", startsWith("/api/energy/jobs/")))
+                .andExpect(jsonPath("$.type").value("scenario-sweep"))
+                .andReturn().getResponse().getContentAsString();
+        String id = body.replaceAll(".*\"jobId\":\"([^\"]+)\".*", "$1");
+
+        // Poll like a client would
+        long giveUpAt = System.currentTimeMillis() + 2000;
+        while (!mockMvc.perform(get("/api/energy/jobs/" + id)).andReturn().getResponse()
+                .getContentAsString().contains("\"done\"") && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(10);
+        }
+
+        mockMvc.perform(get("/api/energy/jobs/" + id + "/result"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scenarios").value(12));
+    }
+
+    // Test: Invalid parameters should be refused with 400 before any job is queued
+    @Test
+    void submit_WithInvalidParams_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/energy/jobs/scenario-sweep").param("minSlots", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/energy/jobs/statistics").param("from", "2025-01-10").param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/energy/jobs/heatmap").param("resolution", "minute"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(energyService);
+    }
+
+    // Test: Unknown job ids should give 404, for status, result and cancel alike
+    @Test
+    void unknownJob_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/energy/jobs/nope")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/energy/jobs/nope/result")).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/energy/jobs/nope")).andExpect(status().isNotFound());
+    }
+}
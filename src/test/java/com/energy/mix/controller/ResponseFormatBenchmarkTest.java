@@ -0,0 +1,103 @@
+package com.energy.mix.controller;
+
+import com.energy.mix.model.DailyMix;
+import com.energy.mix.model.Fuel;
+import com.energy.mix.model.FuelMix;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compares payload size and encode/decode speed of JSON, CBOR and Smile.
+// Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class ResponseFormatBenchmarkTest {
+
+    private static final int ITERATIONS = 20_000;
+
+    // Mappers built the same way Spring builds them for its message converters
+    private final Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    ResponseFormatBenchmarkTest() {
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.cbor().build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.smile().build());
+    }
+
+    // Benchmark: the /mix answer (3 days) and a 2-day list of slots like /optimal-slots returns
+    @Test
+    void compareFormats() throws Exception {
+        List<DailyMix> mix = createMix();
+        List<Map<String, Object>> slots = createSlots();
+
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+
+            byte[] mixBytes = mapper.writeValueAsBytes(mix);
+            byte[] slotBytes = mapper.writeValueAsBytes(slots);
+
+            // Round trip must give back the same data before we measure anything
+            List<Map<String, Object>> decoded = mapper.readValue(mixBytes, new TypeReference<>() {});
+            assertEquals(mix.get(2).cleanEnergyPercentage(), decoded.get(2).get("cleanEnergyPercentage"));
+            assertEquals(mix.get(2).averageMix().size(), ((Map<?, ?>) decoded.get(2).get("averageMix")).size());
+
+            double encodeMicros = measure(() -> mapper.writeValueAsBytes(slots));
+            double decodeMicros = measure(() -> mapper.readValue(slotBytes, List.class));
+
+            System.out.printf("%-6s mix=%5d B  slots=%6d B  encode=%7.2f us  decode=%7.2f us%n",
+                entry.getKey(), mixBytes.length, slotBytes.length, encodeMicros, decodeMicros);
+        }
+    }
+
+    private interface Action {
+        Object run() throws Exception;
+    }
+
+    // Average time of one call in microseconds, after a warmup round
+    private double measure(Action action) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.run();
+        }
+        return (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+    }
+
+    private List<DailyMix> createMix() {
+        Random random = new Random(1);
+        List<DailyMix> result = new ArrayList<>();
+        for (int day = 1; day <= 3; day++) {
+            double[] averages = new double[Fuel.values().length];
+            for (int i = 0; i < averages.length; i++) {
+                averages[i] = random.nextInt(400) / 10.0;
+            }
+            result.add(new DailyMix("2024-01-0" + day, new FuelMix(averages), random.nextInt(1000) / 10.0));
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> createSlots() {
+        Random random = new Random(2);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < 96; i++) {
+            int minutes = i * 30;
+            result.add(Map.of(
+                "startTime", String.format("2024-01-%02d %02d:%02d", 2 + minutes / 1440, minutes / 60 % 24, minutes % 60),
+                "endTime", String.format("2024-01-%02d %02d:%02d", 2 + (minutes + 30) / 1440, (minutes + 30) / 60 % 24, (minutes + 30) % 60),
+                "cleanEnergyPercentage", random.nextInt(1000) / 10.0
+            ));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package com.energy.mix.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyMixTest {
+
+    // Built the same way Spring builds the mapper for our responses
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // Test: The fuel mix should keep the numbers we gave it and know which fuels are missing
+    @Test
+    void fuelMix_ShouldStoreKnownFuels() {
+        FuelMix mix = mix(Fuel.WIND, 20.0, Fuel.GAS, 35.0);
+
+        assertEquals(2, mix.size());
+        assertEquals(20.0, mix.get(Fuel.WIND));
+        assertTrue(mix.has(Fuel.GAS));
+        assertFalse(mix.has(Fuel.COAL));
+        assertTrue(Double.isNaN(mix.get(Fuel.COAL)));
+        assertEquals("{gas=35.0, wind=20.0}", mix.toString());
+    }
+
+    // Test: Changing the array we built the mix from must not change the mix
+    @Test
+    void fuelMix_ShouldCopyItsArray() {
+        double[] percentages = new double[Fuel.values().length];
+        percentages[Fuel.WIND.ordinal()] = 40.0;
+        FuelMix mix = new FuelMix(percentages);
+        FuelMix copy = new FuelMix(percentages);
+
+        percentages[Fuel.WIND.ordinal()] = 0.0;
+
+        assertEquals(40.0, mix.get(Fuel.WIND));
+        assertEquals(copy, mix);
+        assertNotEquals(new FuelMix(percentages), mix);
+    }
+
+    // Test: The JSON must keep the shape the /mix answer has always had
+    @Test
+    void serialize_ShouldKeepMixJsonShape() throws Exception {
+        DailyMix record = new DailyMix("2024-01-01",
+            mix(Fuel.BIOMASS, 15.0, Fuel.NUCLEAR, 25.0, Fuel.WIND, 20.5, Fuel.GAS, 39.5), 60.5);
+
+        String json = mapper.writeValueAsString(record);
+
+        // Same fields, same values (the order of fuels inside averageMix doesn't matter in JSON)
+        assertEquals(mapper.readTree("""
+            {"date": "2024-01-01",
+             "averageMix": {"biomass": 15.0, "nuclear": 25.0, "wind": 20.5, "gas": 39.5},
+             "cleanEnergyPercentage": 60.5}
+            """), mapper.readTree(json));
+        assertTrue(json.startsWith("{\"date\":\"2024-01-01\",\"averageMix\":{"));
+    }
+
+    // Test: Missing fuels are left out of the JSON, not written as NaN or null
+    @Test
+    void serialize_ShouldSkipMissingFuels() throws Exception {
+        DailyMix record = new DailyMix("2024-01-02", mix(Fuel.SOLAR, 5.0, Fuel.COAL, 1.5), 5.0);
+
+        Map<String, Object> decoded = mapper.readValue(mapper.writeValueAsString(record), new TypeReference<>() {});
+
+        assertEquals(Map.of("coal", 1.5, "solar", 5.0), decoded.get("averageMix"));
+        assertEquals(5.0, decoded.get("cleanEnergyPercentage"));
+    }
+
+    // Mix from pairs of fuel and percentage, the other fuels missing
+    private static FuelMix mix(Object... fuelsAndPercentages) {
+        double[] percentages = new double[Fuel.values().length];
+        Arrays.fill(percentages, Double.NaN);
+        for (int i = 0; i < fuelsAndPercentages.length; i += 2) {
+            percentages[((Fuel) fuelsAndPercentages[i]).ordinal()] = (Double) fuelsAndPercentages[i + 1];
+        }
+        return new FuelMix(percentages);
+    }
+}
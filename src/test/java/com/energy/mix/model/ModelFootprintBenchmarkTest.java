@@ -0,0 +1,125 @@
+package com.energy.mix.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compares the day mix kept in HashMaps (how the service used to build it) with the DailyMix record:
+// heap used per object and JSON writing speed.
+// Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class ModelFootprintBenchmarkTest {
+
+    private static final int OBJECTS = 200_000;
+    private static final int ITERATIONS = 50_000;
+
+    private static final String[] FUELS = {"biomass", "coal", "imports", "gas", "nuclear", "other", "hydro", "solar", "wind"};
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // Benchmark: bytes on the heap per day mix
+    @Test
+    void compareHeapFootprint() {
+        Random random = new Random(1);
+
+        System.out.printf("HashMap mix %6.1f B/object%n", bytesPerObject(i -> mapMix(random, i)));
+        System.out.printf("DailyMix    %6.1f B/object%n", bytesPerObject(i -> record(random, i)));
+    }
+
+    // Benchmark: writing the /mix answer (3 days) to JSON
+    @Test
+    void compareSerialization() throws Exception {
+        Random random = new Random(2);
+        List<Map<String, Object>> maps = new ArrayList<>();
+        List<DailyMix> records = new ArrayList<>();
+        for (int day = 0; day < 3; day++) {
+            DailyMix record = record(random, day);
+            records.add(record);
+            maps.add(mapMix(record));
+        }
+        assertEquals(mapper.readTree(mapper.writeValueAsBytes(maps)), mapper.readTree(mapper.writeValueAsBytes(records)));
+
+        // Measured twice each, the first round only warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            double mapMicros = measure(maps);
+            double recordMicros = measure(records);
+            if (round == 1) {
+                System.out.printf("HashMap mix x3 %6.2f us/write (%,.0f writes/s)%n", mapMicros, 1e6 / mapMicros);
+                System.out.printf("DailyMix    x3 %6.2f us/write (%,.0f writes/s)%n", recordMicros, 1e6 / recordMicros);
+            }
+        }
+    }
+
+    private double measure(Object value) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        return (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+    }
+
+    // Heap growth after building many objects, divided by their number (rough, but stable enough)
+    private double bytesPerObject(IntFunction<Object> factory) {
+        Object[] keep = new Object[OBJECTS];
+        long before = usedHeap();
+        for (int i = 0; i < OBJECTS; i++) {
+            keep[i] = factory.apply(i);
+        }
+        long after = usedHeap();
+        assertNotNull(keep[OBJECTS - 1]);
+        return (after - before) / (double) OBJECTS;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Day mix as the service used to build it: HashMaps with every fuel the API reports
+    private static Map<String, Object> mapMix(Random random, int day) {
+        Map<String, Double> averages = new HashMap<>();
+        for (String fuel : FUELS) {
+            averages.put(fuel, random.nextInt(400) / 10.0);
+        }
+        Map<String, Object> mix = new LinkedHashMap<>();
+        mix.put("date", "2024-01-" + (day % 28 + 1));
+        mix.put("averageMix", averages);
+        mix.put("cleanEnergyPercentage", random.nextInt(1000) / 10.0);
+        return mix;
+    }
+
+    // The same day in the HashMap layout
+    private static Map<String, Object> mapMix(DailyMix record) {
+        Map<String, Double> averages = new HashMap<>();
+        for (Fuel fuel : Fuel.values()) {
+            averages.put(fuel.getApiName(), record.averageMix().get(fuel));
+        }
+        Map<String, Object> mix = new LinkedHashMap<>();
+        mix.put("date", record.date());
+        mix.put("averageMix", averages);
+        mix.put("cleanEnergyPercentage", record.cleanEnergyPercentage());
+        return mix;
+    }
+
+    private static DailyMix record(Random random, int day) {
+        double[] averages = new double[Fuel.values().length];
+        for (int i = 0; i < averages.length; i++) {
+            averages[i] = random.nextInt(400) / 10.0;
+        }
+        return new DailyMix("2024-01-" + (day % 28 + 1), new FuelMix(averages), random.nextInt(1000) / 10.0);
+    }
+}
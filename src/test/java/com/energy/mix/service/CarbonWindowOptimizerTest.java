@@ -0,0 +1,80 @@
+package com.energy.mix.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarbonWindowOptimizerTest {
+
+    // Test: Joining should keep only the intervals that both series have
+    @Test
+    void join_ShouldMatchIntervalsByStartTime() {
+        // Generation for intervals 0..3, intensity only for intervals 1..4
+        IntervalSeries generation = intervals(10, 20, 30, 40);
+        int[] slots = {1, 2, 3, 4};
+        double[] intensity = {200, 150, 100, 50};
+
+        CarbonWindowOptimizer.JoinedSeries joined = CarbonWindowOptimizer.join(generation, slots, intensity);
+
+        // Intervals 1, 2 and 3 are in both
+        assertEquals(3, joined.size());
+        assertArrayEquals(new int[] {1, 2, 3}, joined.startSlots());
+        assertArrayEquals(new double[] {20, 30, 40}, joined.clean());
+        assertArrayEquals(new double[] {200, 150, 100}, joined.intensity());
+    }
+
+    // Test: In intensity mode the window with the lowest gCO2/kWh wins, even if it's not the cleanest
+    @Test
+    void findBestWindow_IntensityMode_ShouldPickLowestIntensity() {
+        CarbonWindowOptimizer.JoinedSeries series = series(
+            new double[] {90, 90, 10, 10},
+            new double[] {300, 300, 40, 40});
+
+        CarbonWindowOptimizer.Window clean = CarbonWindowOptimizer.findBestWindow(series, 2, OptimizationMode.CLEAN, 0.5);
+        CarbonWindowOptimizer.Window intensity = CarbonWindowOptimizer.findBestWindow(series, 2, OptimizationMode.INTENSITY, 0.5);
+
+        assertEquals(0, clean.start());
+        assertEquals(2, intensity.start());
+        assertEquals(40.0, intensity.averageIntensity());
+    }
+
+    // Test: The blend weight should move the choice between the two goals
+    @Test
+    void findBestWindow_BlendMode_ShouldFollowWeight() {
+        CarbonWindowOptimizer.JoinedSeries series = series(
+            new double[] {90, 50, 10},
+            new double[] {300, 200, 100});
+
+        // Only clean % counts -> first interval; only intensity counts -> last interval
+        assertEquals(0, CarbonWindowOptimizer.findBestWindow(series, 1, OptimizationMode.BLEND, 1.0).start());
+        assertEquals(2, CarbonWindowOptimizer.findBestWindow(series, 1, OptimizationMode.BLEND, 0.0).start());
+    }
+
+    // Test: Asking for a longer window than we have data for should fail
+    @Test
+    void findBestWindow_NotEnoughData_ShouldThrowException() {
+        CarbonWindowOptimizer.JoinedSeries series = series(new double[] {50}, new double[] {100});
+
+        assertThrows(RuntimeException.class,
+            () -> CarbonWindowOptimizer.findBestWindow(series, 2, OptimizationMode.INTENSITY, 0.5));
+    }
+
+    // Helper method to build already joined series
+    private CarbonWindowOptimizer.JoinedSeries series(double[] clean, double[] intensity) {
+        IntervalSeries generation = intervals(clean);
+        int[] slots = new int[intensity.length];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
+        }
+        return CarbonWindowOptimizer.join(generation, slots, intensity);
+    }
+
+    // Helper method to build consecutive 30-minute intervals (slots 0, 1, 2...) with given clean %
+    private IntervalSeries intervals(double... clean) {
+        IntervalSeries series = IntervalSeries.EMPTY;
+        for (int i = 0; i < clean.length; i++) {
+            series = series.append(new IntervalSeries(new int[] {i}, new double[] {clean[i]}, new double[] {0, clean[i]}));
+        }
+        return series;
+    }
+}
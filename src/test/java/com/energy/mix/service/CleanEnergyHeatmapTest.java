@@ -0,0 +1,88 @@
+package com.energy.mix.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CleanEnergyHeatmapTest {
+
+    // Test: A normal day should give 24 hourly cells, each the average of its two half-hours
+    @Test
+    void build_ByHour_ShouldAverageHalfHours() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+
+        Map<String, Object> result = CleanEnergyHeatmap.build(List.of(date), List.of(fullDay(date)), 2);
+
+        List<Double[]> values = values(result);
+        @SuppressWarnings("unchecked")
+        List<String> times = (List<String>) result.get("times");
+        assertEquals(24, times.size());
+        assertEquals("00:00", times.get(0));
+        assertEquals("23:00", times.get(23));
+        assertEquals(List.of("2024-01-15"), result.get("days"));
+        // Half-hours 0 and 1 -> 0.5, half-hours 46 and 47 -> 46.5
+        assertEquals(0.5, values.get(0)[0]);
+        assertEquals(46.5, values.get(0)[23]);
+    }
+
+    // Test: When the clocks go forward there is no 01:00 hour, so that cell stays empty
+    @Test
+    void build_OnSpringForwardDay_ShouldLeaveMissingHourEmpty() {
+        LocalDate date = LocalDate.of(2024, 3, 31);
+
+        List<Double[]> values = values(CleanEnergyHeatmap.build(List.of(date), List.of(fullDay(date)), 2));
+
+        // 46 half-hours: 00:00 and 00:30 are the first two, the next one is already 02:00
+        assertEquals(0.5, values.get(0)[0]);
+        assertNull(values.get(0)[1]);
+        assertEquals(2.5, values.get(0)[2]);
+    }
+
+    // Test: When the clocks go back, the repeated 01:00 hour gets both of its real hours averaged
+    @Test
+    void build_OnFallBackDay_ShouldMergeRepeatedHour() {
+        LocalDate date = LocalDate.of(2024, 10, 27);
+
+        List<Double[]> values = values(CleanEnergyHeatmap.build(List.of(date), List.of(fullDay(date)), 1));
+
+        // 50 half-hours: 01:00 local is the 3rd (index 2) and 5th (index 4) one
+        assertEquals(48, values.get(0).length);
+        assertEquals(3.0, values.get(0)[2]);
+        assertEquals(49.0, values.get(0)[47]);
+    }
+
+    // Test: A day without any data should be a row of empty cells, not an error
+    @Test
+    void build_DayWithoutData_ShouldGiveEmptyRow() {
+        List<Double[]> values = values(CleanEnergyHeatmap.build(
+            List.of(LocalDate.of(2024, 1, 15)), List.of(IntervalSeries.EMPTY), 2));
+
+        for (Double cell : values.get(0)) {
+            assertNull(cell);
+        }
+    }
+
+    // Helper method to build every half-hour of a UK day, with clean % equal to its position (0, 1, 2...)
+    private IntervalSeries fullDay(LocalDate date) {
+        int start = UpstreamTime.dayStartSlot(date);
+        int size = UpstreamTime.slotsInDay(date);
+        int[] slots = new int[size];
+        double[] clean = new double[size];
+        double[] prefix = new double[size + 1];
+        for (int i = 0; i < size; i++) {
+            slots[i] = start + i;
+            clean[i] = i;
+            prefix[i + 1] = prefix[i] + i;
+        }
+        return new IntervalSeries(slots, clean, prefix);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Double[]> values(Map<String, Object> result) {
+        return (List<Double[]>) result.get("values");
+    }
+}
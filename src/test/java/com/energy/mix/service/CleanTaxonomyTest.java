@@ -0,0 +1,63 @@
+package com.energy.mix.service;
+
+import com.energy.mix.model.Fuel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CleanTaxonomyTest {
+
+    // Test: Without any parameter we keep counting clean energy as before
+    @Test
+    void fromParams_WithNothing_ShouldGiveDefault() {
+        CleanTaxonomy taxonomy = CleanTaxonomy.fromParams(null, null);
+
+        assertSame(CleanTaxonomy.DEFAULT, taxonomy);
+        assertTrue(taxonomy.includes(Fuel.BIOMASS));
+        assertTrue(taxonomy.includes(Fuel.NUCLEAR));
+        assertFalse(taxonomy.includes(Fuel.GAS));
+    }
+
+    // Test: The named profiles differ exactly in biomass and nuclear
+    @Test
+    void fromParams_WithProfile_ShouldPickItsFuels() {
+        CleanTaxonomy renewable = CleanTaxonomy.fromParams("renewable-only", null);
+        CleanTaxonomy lowCarbon = CleanTaxonomy.fromParams("Low-Carbon", null);
+
+        assertFalse(renewable.includes(Fuel.NUCLEAR));
+        assertTrue(renewable.includes(Fuel.BIOMASS));
+        assertTrue(lowCarbon.includes(Fuel.NUCLEAR));
+        assertFalse(lowCarbon.includes(Fuel.BIOMASS));
+        assertTrue(renewable.isProfile());
+    }
+
+    // Test: A list of fuels becomes a bitmask, and a list equal to a profile reuses that profile
+    @Test
+    void fromParams_WithSources_ShouldBuildMask() {
+        CleanTaxonomy windAndSun = CleanTaxonomy.fromParams(null, "wind, solar");
+
+        assertEquals(CleanTaxonomy.maskOf(Fuel.WIND, Fuel.SOLAR), windAndSun.mask());
+        assertFalse(windAndSun.isProfile());
+        assertSame(CleanTaxonomy.DEFAULT, CleanTaxonomy.fromParams(null, "solar,wind,hydro,nuclear,biomass"));
+    }
+
+    // Test: Only the fuels in the mask are added up
+    @Test
+    void sum_ShouldAddOnlyCleanFuels() {
+        double[] byFuel = new double[Fuel.values().length];
+        byFuel[Fuel.WIND.ordinal()] = 30.0;
+        byFuel[Fuel.SOLAR.ordinal()] = 5.0;
+        byFuel[Fuel.GAS.ordinal()] = 65.0;
+
+        assertEquals(35.0, CleanTaxonomy.fromParams(null, "wind,solar").sum(byFuel));
+    }
+
+    // Test: Unknown names, empty lists and both parameters at once should be rejected
+    @Test
+    void fromParams_WithBadInput_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> CleanTaxonomy.fromParams("green", null));
+        assertThrows(IllegalArgumentException.class, () -> CleanTaxonomy.fromParams(null, "wind,tidal"));
+        assertThrows(IllegalArgumentException.class, () -> CleanTaxonomy.fromParams(null, ""));
+        assertThrows(IllegalArgumentException.class, () -> CleanTaxonomy.fromParams("low-carbon", "wind"));
+    }
+}
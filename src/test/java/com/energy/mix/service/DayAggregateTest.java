@@ -0,0 +1,171 @@
+package com.energy.mix.service;
+
+import com.energy.mix.model.DailyMix;
+import com.energy.mix.model.Fuel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DayAggregateTest {
+
+    // Test: The first refresh should give the same averages as computing everything from scratch
+    @Test
+    void apply_FirstRefresh_ShouldComputeAverages() {
+        DayAggregate aggregate = new DayAggregate();
+
+        // Two intervals: wind 20% then 40%, gas 80% then 60%
+        int changed = aggregate.apply(List.of(
+            snapshot(0, 20.0, 80.0),
+            snapshot(1, 40.0, 60.0)
+        ));
+
+        DailyMix mix = aggregate.toDailyMix("2024-01-01");
+
+        // Both intervals are new, wind averages to 30% and it is our only clean source
+        assertEquals(2, changed);
+        assertEquals(30.0, mix.averageMix().get(Fuel.WIND));
+        assertEquals(70.0, mix.averageMix().get(Fuel.GAS));
+        assertEquals(30.0, mix.cleanEnergyPercentage());
+    }
+
+    // Test: Sending the same data again should not change anything
+    @Test
+    void apply_SameData_ShouldReportNoChanges() {
+        DayAggregate aggregate = new DayAggregate();
+        aggregate.apply(List.of(snapshot(0, 20.0, 80.0)));
+        DailyMix before = aggregate.toDailyMix("2024-01-01");
+
+        int changed = aggregate.apply(List.of(snapshot(0, 20.0, 80.0)));
+
+        // Nothing changed, so we should even get the very same cached object back
+        assertEquals(0, changed);
+        assertSame(before, aggregate.toDailyMix("2024-01-01"));
+    }
+
+    // Test: A forecast revision of one interval should update averages and prefix sums
+    @Test
+    void apply_RevisedInterval_ShouldUpdateOnlyThatInterval() {
+        DayAggregate aggregate = new DayAggregate();
+        aggregate.apply(List.of(
+            snapshot(0, 20.0, 80.0),
+            snapshot(1, 40.0, 60.0),
+            snapshot(2, 10.0, 90.0)
+        ));
+        IntervalSeries before = aggregate.getSeries();
+
+        // The middle interval gets windier in the new forecast
+        int changed = aggregate.apply(List.of(
+            snapshot(0, 20.0, 80.0),
+            snapshot(1, 70.0, 30.0),
+            snapshot(2, 10.0, 90.0)
+        ));
+
+        // Only one interval changed, and the results match a full recomputation
+        assertEquals(1, changed);
+        assertEquals(33.3, aggregate.toDailyMix("2024-01-01").averageMix().get(Fuel.WIND));
+        assertArrayEquals(new double[] {0.0, 20.0, 90.0, 100.0}, aggregate.getSeries().cleanPrefix(), 1e-9);
+        assertEquals(70.0, aggregate.getSeries().clean()[1]);
+
+        // A series handed out before the refresh stays as it was
+        assertEquals(40.0, before.clean()[1]);
+    }
+
+    // Test: When intervals appear or disappear, positions move and everything still adds up
+    @Test
+    void apply_AddedAndRemovedIntervals_ShouldRebuildPrefix() {
+        DayAggregate aggregate = new DayAggregate();
+        aggregate.apply(List.of(
+            snapshot(0, 20.0, 80.0),
+            snapshot(1, 40.0, 60.0)
+        ));
+
+        // First interval is gone, a new one is added at the end
+        int changed = aggregate.apply(List.of(
+            snapshot(1, 40.0, 60.0),
+            snapshot(2, 60.0, 40.0)
+        ));
+
+        assertEquals(2, changed);
+        assertEquals(2, aggregate.getSeries().size());
+        assertArrayEquals(new int[] {1, 2}, aggregate.getSeries().startSlots());
+        assertEquals(50.0, aggregate.toDailyMix("2024-01-01").averageMix().get(Fuel.WIND));
+        assertArrayEquals(new double[] {0.0, 40.0, 100.0}, aggregate.getSeries().cleanPrefix(), 1e-9);
+    }
+
+    // Test: The same cache entry applied twice should not be decoded or counted again
+    @Test
+    void applyEncoded_SameBytes_ShouldReportNoChanges() {
+        DayAggregate aggregate = new DayAggregate();
+        byte[] encoded = GenerationCodec.encode(List.of(snapshot(0, 20.0, 80.0), snapshot(1, 40.0, 60.0)));
+
+        assertEquals(2, aggregate.applyEncoded(encoded));
+        assertEquals(0, aggregate.applyEncoded(encoded.clone()));
+        assertEquals(30.0, aggregate.toDailyMix("2024-01-01").cleanEnergyPercentage());
+    }
+
+    // Test: A series for another taxonomy is built once and rebuilt only after the data changes
+    @Test
+    void getSeries_WithTaxonomy_ShouldCacheUntilChange() {
+        DayAggregate aggregate = new DayAggregate();
+        aggregate.apply(List.of(
+            interval(0, Fuel.WIND, 20.0, Fuel.NUCLEAR, 30.0, Fuel.GAS, 50.0),
+            interval(1, Fuel.WIND, 40.0, Fuel.NUCLEAR, 30.0, Fuel.GAS, 30.0)
+        ));
+        CleanTaxonomy renewable = CleanTaxonomy.fromParams("renewable-only", null);
+
+        IntervalSeries first = aggregate.getSeries(renewable);
+
+        // Nuclear doesn't count, and the default series still does count it
+        assertArrayEquals(new double[] {20.0, 40.0}, first.clean());
+        assertArrayEquals(new double[] {50.0, 70.0}, aggregate.getSeries().clean());
+        assertSame(first, aggregate.getSeries(renewable));
+        assertEquals(30.0, aggregate.toDailyMix("2024-01-01", renewable).cleanEnergyPercentage());
+
+        aggregate.apply(List.of(interval(0, Fuel.WIND, 60.0, Fuel.NUCLEAR, 30.0, Fuel.GAS, 10.0)));
+
+        assertArrayEquals(new double[] {60.0}, aggregate.getSeries(renewable).clean());
+    }
+
+    // Test: A fuel reported as 0 counts in its average, a fuel that wasn't reported doesn't
+    @Test
+    void apply_MissingFuel_ShouldNotCountAsZero() {
+        DayAggregate aggregate = new DayAggregate();
+        aggregate.apply(List.of(
+            interval(0, Fuel.WIND, 40.0, Fuel.SOLAR, 0.0, Fuel.GAS, 60.0),
+            interval(1, Fuel.WIND, 20.0, Fuel.GAS, 60.0, Fuel.SOLAR, 10.0),
+            interval(2, Fuel.WIND, 30.0, Fuel.GAS, 70.0)
+        ));
+
+        DailyMix mix = aggregate.toDailyMix("2024-01-01");
+
+        assertEquals(30.0, mix.averageMix().get(Fuel.WIND));
+        assertEquals(5.0, mix.averageMix().get(Fuel.SOLAR));
+        assertFalse(mix.averageMix().has(Fuel.COAL));
+
+        // A revision that only drops a fuel is still a change
+        assertEquals(1, aggregate.apply(List.of(
+            interval(0, Fuel.WIND, 40.0, Fuel.GAS, 60.0),
+            interval(1, Fuel.WIND, 20.0, Fuel.GAS, 60.0, Fuel.SOLAR, 10.0),
+            interval(2, Fuel.WIND, 30.0, Fuel.GAS, 70.0)
+        )));
+        assertEquals(10.0, aggregate.toDailyMix("2024-01-01").averageMix().get(Fuel.SOLAR));
+    }
+
+    // Helper method to build one interval (by slot number) with only wind and gas in the mix
+    private DayAggregate.IntervalSnapshot snapshot(int slot, double wind, double gas) {
+        return interval(slot, Fuel.WIND, wind, Fuel.GAS, gas);
+    }
+
+    // Helper method to build one interval (by slot number) from pairs of fuel and percentage
+    static DayAggregate.IntervalSnapshot interval(int slot, Object... fuelsAndPercentages) {
+        double[] byFuel = new double[Fuel.values().length];
+        Arrays.fill(byFuel, Double.NaN);
+        for (int i = 0; i < fuelsAndPercentages.length; i += 2) {
+            byFuel[((Fuel) fuelsAndPercentages[i]).ordinal()] = (Double) fuelsAndPercentages[i + 1];
+        }
+        return new DayAggregate.IntervalSnapshot(slot, slot + 1, byFuel);
+    }
+}
@@ -1,20 +1,34 @@
 package com.energy.mix.service;
 
-import com.energy.mix.model.EnergyMix;
+import com.energy.mix.cache.InMemoryGenerationCache;
+import com.energy.mix.model.DailyMix;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +39,22 @@ class EnergyServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    // A real bulkhead with generous limits, so it never gets in the way of these tests
+    @Spy
+    private UpstreamBulkhead upstreamBulkhead = new UpstreamBulkhead(8, 32, 500, 2, new SimpleMeterRegistry());
+
+    // A real call policy without hedging or backoff waits, so tests stay fast and predictable
+    @Spy
+    private UpstreamCallPolicy upstreamCallPolicy = new UpstreamCallPolicy(3, 0, 0, 0.1, false, 50, new SimpleMeterRegistry());
+
+    // A real in-memory cache, empty for every test
+    @Spy
+    private InMemoryGenerationCache generationCache = new InMemoryGenerationCache(300, 10);
+
+    // A real observation registry; tests that look at spans add their own handler to it
+    @Spy
+    private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
     // This is the real EnergyService we're testing, but with our fake HTTP client
     @InjectMocks
     private EnergyService energyService;
@@ -118,7 +148,7 @@ class EnergyServiceTest {
             .thenReturn(mockApiResponse);
 
         // Now let's actually call the method that gets energy mix data
-        List<EnergyMix> result = energyService.getEnergyMixForThreeDays();
+        List<DailyMix> result = energyService.getEnergyMixForThreeDays();
 
         // Check if everything worked:
         // - Did we get some data back?
@@ -131,10 +161,10 @@ class EnergyServiceTest {
         assertEquals(3, result.size());
         
         result.forEach(energyMix -> {
-            assertNotNull(energyMix.getDate());
-            assertNotNull(energyMix.getAverageMix());
-            assertTrue(energyMix.getCleanEnergyPercentage() >= 0);
-            assertTrue(energyMix.getCleanEnergyPercentage() <= 100);
+            assertNotNull(energyMix.date());
+            assertNotNull(energyMix.averageMix());
+            assertTrue(energyMix.cleanEnergyPercentage() >= 0);
+            assertTrue(energyMix.cleanEnergyPercentage() <= 100);
         });
     }
 
@@ -207,4 +237,387 @@ class EnergyServiceTest {
         assertNotNull(result.get("startTime"));
         assertNotNull(result.get("endTime"));
     }
-}
\ No newline at end of file
+
+    // Test: In intensity mode we also ask the /intensity endpoint and report the average gCO2/kWh
+    @Test
+    void findOptimalChargingWindow_WithIntensityMode_ShouldUseCarbonIntensity() {
+        // Generation data for the mix, and a made-up intensity forecast for the same intervals
+        // (the last hour has the lowest intensity)
+        String intensityResponse = """
+            {
+                "data": [
+                    {"from": "2024-01-01T00:00:00Z", "to": "2024-01-01T00:30:00Z", "intensity": {"forecast": 250, "actual": 240}},
+                    {"from": "2024-01-01T00:30:00Z", "to": "2024-01-01T01:00:00Z", "intensity": {"forecast": 230, "actual": null}},
+                    {"from": "2024-01-01T01:00:00Z", "to": "2024-01-01T01:30:00Z", "intensity": {"forecast": 120, "actual": null}},
+                    {"from": "2024-01-01T01:30:00Z", "to": "2024-01-01T02:00:00Z", "intensity": {"forecast": 100, "actual": null}}
+                ]
+            }
+            """;
+        when(restTemplate.getForObject(contains("/generation/"), eq(String.class)))
+            .thenReturn(mockApiResponse);
+        when(restTemplate.getForObject(contains("/intensity/"), eq(String.class)))
+            .thenReturn(intensityResponse);
+
+        Map<String, Object> result = energyService.findOptimalChargingWindow(1, OptimizationMode.INTENSITY, 0.5, CleanTaxonomy.DEFAULT);
+
+        // The best hour is 01:00-02:00 with (120 + 100) / 2 = 110 gCO2/kWh
+        assertEquals("2024-01-01 01:00", result.get("startTime"));
+        assertEquals("2024-01-01 02:00", result.get("endTime"));
+        assertEquals(110.0, result.get("averageCarbonIntensity"));
+        assertEquals("intensity", result.get("mode"));
+    }
+
+    // Test: A blend weight outside 0..1 (or not a number at all) makes no sense and should be rejected
+    @Test
+    void findOptimalChargingWindow_WithInvalidWeight_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.findOptimalChargingWindow(2, OptimizationMode.BLEND, 1.5, CleanTaxonomy.DEFAULT));
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.findOptimalChargingWindow(2, OptimizationMode.BLEND, Double.NaN, CleanTaxonomy.DEFAULT));
+    }
+
+    // Test: Slots don't have to be next to each other, but must fit between earliest start and deadline
+    @Test
+    void findOptimalChargingSlots_ShouldPickCleanestSlotsBeforeDeadline() {
+        // Our fake data for tomorrow, nothing for the day after
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse, "{\"data\": []}");
+
+        // Clean % of the four intervals is 52, 55, 58 and 63; the last one is after the deadline
+        Map<String, Object> result = energyService.findOptimalChargingSlots(2,
+            LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 1, 1, 30), null);
+
+        // 00:30 and 01:00 are the two cleanest that still fit
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> slots = (List<Map<String, Object>>) result.get("slots");
+        assertEquals(2, slots.size());
+        assertEquals("2024-01-01 00:30", slots.get(0).get("startTime"));
+        assertEquals("2024-01-01 01:00", slots.get(1).get("startTime"));
+        assertEquals(56.5, result.get("cleanEnergyPercentage"));
+        assertEquals(1, result.get("sessions"));
+    }
+
+    // Test: A deadline before the earliest start makes no sense
+    @Test
+    void findOptimalChargingSlots_WithDeadlineBeforeStart_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.findOptimalChargingSlots(2,
+                LocalDateTime.of(2024, 1, 2, 0, 0), LocalDateTime.of(2024, 1, 1, 0, 0), null));
+    }
+
+    // Test: Two instances (like two replicas) sharing one cache should call the API only once per day
+    @Test
+    void getEnergyMixForThreeDays_WithSharedCache_ShouldCallApiOncePerDay() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse);
+        EnergyService otherReplica = new EnergyService(restTemplate, objectMapper, upstreamBulkhead, upstreamCallPolicy, generationCache, observationRegistry);
+
+        List<DailyMix> first = energyService.getEnergyMixForThreeDays();
+        List<DailyMix> second = otherReplica.getEnergyMixForThreeDays();
+
+        // 3 days downloaded by the first instance, the second one read them from the cache
+        verify(restTemplate, times(3)).getForObject(anyString(), eq(String.class));
+        assertEquals(first.get(0).averageMix(), second.get(0).averageMix());
+        assertEquals(first.get(2).cleanEnergyPercentage(), second.get(2).cleanEnergyPercentage());
+    }
+
+    // Test: While another replica holds the lease we wait for its result instead of calling the API
+    @Test
+    void getEnergyMixForThreeDays_WhileOtherReplicaRefreshes_ShouldWaitForCache() throws Exception {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse);
+        EnergyService otherReplica = new EnergyService(restTemplate, objectMapper, upstreamBulkhead, upstreamCallPolicy, generationCache, observationRegistry);
+        otherReplica.getEnergyMixForThreeDays();
+
+        // Pretend the cache for today expired and another replica has just started refreshing it
+        String key = "generation:" + UpstreamTime.today();
+        byte[] today = generationCache.get(key);
+        InMemoryGenerationCache emptyCache = new InMemoryGenerationCache(300, 10);
+        String token = emptyCache.tryLock(key);
+        for (int i = 1; i <= 2; i++) {
+            String otherKey = "generation:" + UpstreamTime.today().plusDays(i);
+            emptyCache.put(otherKey, generationCache.get(otherKey));
+        }
+        EnergyService waiting = new EnergyService(restTemplate, objectMapper, upstreamBulkhead, upstreamCallPolicy, emptyCache, observationRegistry);
+
+        // The "other replica" finishes a little later
+        Thread refresher = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignored) {
+            }
+            emptyCache.put(key, today);
+            emptyCache.unlock(key, token);
+        });
+        refresher.start();
+        List<DailyMix> result = waiting.getEnergyMixForThreeDays();
+        refresher.join();
+
+        // Only the 3 calls from the first refresh - the waiting instance never called the API
+        verify(restTemplate, times(3)).getForObject(anyString(), eq(String.class));
+        assertEquals(3, result.size());
+    }
+
+    // Test: A replica that never finishes shouldn't keep us waiting longer than its lease
+    @Test
+    void getEnergyMixForThreeDays_WhenLeaseHolderHangs_ShouldDownloadAfterLease() throws Exception {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse);
+        InMemoryGenerationCache shortLease = new InMemoryGenerationCache(300, 1);
+        shortLease.tryLock("generation:" + UpstreamTime.today());
+        EnergyService waiting = new EnergyService(restTemplate, objectMapper, upstreamBulkhead, upstreamCallPolicy, shortLease, observationRegistry);
+
+        long start = System.currentTimeMillis();
+        List<DailyMix> result = waiting.getEnergyMixForThreeDays();
+        long waited = System.currentTimeMillis() - start;
+
+        assertEquals(3, result.size());
+        assertTrue(waited >= 900 && waited < 5000, "waited " + waited + " ms");
+        verify(restTemplate, times(3)).getForObject(anyString(), eq(String.class));
+    }
+
+    // Test: Statistics should cover every fuel and every day in the range
+    @Test
+    void getFuelStatistics_ShouldDescribeEveryFuelAndDay() {
+        // The days are downloaded in parallel, so answer by date rather than by call order
+        answerOnlyFirstJanuary();
+
+        Map<String, Object> result = energyService.getFuelStatistics(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2));
+
+        // Wind was 15, 18, 20 and 25 in our fake data
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> fuels = (Map<String, Map<String, Object>>) result.get("fuels");
+        assertEquals(7, fuels.size());
+        assertEquals(15.0, fuels.get("wind").get("min"));
+        assertEquals(25.0, fuels.get("wind").get("max"));
+        assertEquals(19.0, fuels.get("wind").get("p50"));
+
+        // The first day averages 52, 55, 58 and 63; the second day has no data
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> days = (List<Map<String, Object>>) result.get("days");
+        assertEquals(2, days.size());
+        assertEquals(57.0, days.get(0).get("cleanEnergyPercentage"));
+    }
+
+    // Test: Past days are kept after the first query, even when the generation cache no longer has them
+    @Test
+    void getFuelStatistics_AskedTwiceForPastDays_ShouldCallApiOnlyOnce() {
+        answerOnlyFirstJanuary();
+        // A cache that keeps nothing, so only the kept days can save the second download
+        EnergyService service = new EnergyService(restTemplate, objectMapper, upstreamBulkhead, upstreamCallPolicy,
+            new InMemoryGenerationCache(0, 10), observationRegistry);
+
+        Map<String, Object> first = service.getFuelStatistics(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 10));
+        Map<String, Object> second = service.getFuelStatistics(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 10));
+
+        // One download per day, and the same answer both times
+        verify(restTemplate, times(10)).getForObject(anyString(), eq(String.class));
+        assertEquals(first, second);
+    }
+
+    // Test: A range backwards in time or longer than a year should be rejected
+    @Test
+    void getFuelStatistics_WithBadRange_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.getFuelStatistics(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.getFuelStatistics(LocalDate.of(2023, 1, 1), LocalDate.of(2024, 1, 2)));
+    }
+
+    // Test: A range past the forecast should be rejected before any download or stored day
+    @Test
+    void getFuelStatistics_WithFarFutureRange_ShouldNotCallApiNorKeepDays() throws Exception {
+        LocalDate from = LocalDate.of(3000, 1, 1);
+        LocalDate to = LocalDate.of(3000, 12, 31);
+
+        assertThrows(IllegalArgumentException.class, () -> energyService.getFuelStatistics(from, to));
+        assertThrows(IllegalArgumentException.class, () -> energyService.getCleanEnergyHeatmap(from, to, "hour"));
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.getFuelStatistics(UpstreamTime.today(), UpstreamTime.today().plusDays(3)));
+
+        var field = EnergyService.class.getDeclaredField("days");
+        field.setAccessible(true);
+        assertTrue(((Map<?, ?>) field.get(energyService)).isEmpty());
+        verifyNoInteractions(restTemplate);
+    }
+
+    // Test: The heatmap should have one row per day and the hourly averages of our fake data
+    @Test
+    void getCleanEnergyHeatmap_ShouldReturnGridWithLabels() {
+        answerOnlyFirstJanuary();
+
+        Map<String, Object> result = energyService.getCleanEnergyHeatmap(
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), "hour");
+
+        // 00:00 hour averages 52 and 55, 01:00 hour averages 58 and 63; the second day is empty
+        @SuppressWarnings("unchecked")
+        List<Double[]> values = (List<Double[]>) result.get("values");
+        assertEquals(List.of("2024-01-01", "2024-01-02"), result.get("days"));
+        assertEquals(53.5, values.get(0)[0]);
+        assertEquals(60.5, values.get(0)[1]);
+        assertNull(values.get(0)[2]);
+        assertNull(values.get(1)[0]);
+    }
+
+    // Test: Only hour and half-hour resolutions exist
+    @Test
+    void getCleanEnergyHeatmap_WithUnknownResolution_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.getCleanEnergyHeatmap(null, null, "minute"));
+    }
+
+    // Test: Every scenario of the sweep should point at a best window inside its own limits
+    @Test
+    void sweepChargingScenarios_ShouldAnswerEveryScenario() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse, "{\"data\": []}");
+
+        Map<String, Object> result = energyService.sweepChargingScenarios(1, 2, 1);
+
+        // 4 intervals: 10 scenarios of 1 slot and 6 of 2 slots
+        assertEquals(16, result.get("scenarios"));
+        assertEquals(5, ((List<?>) result.get("times")).size());
+        int[] bestStart = (int[]) result.get("bestStart");
+        int[] earliest = (int[]) result.get("earliest");
+        int[] deadline = (int[]) result.get("deadline");
+        int[] durations = (int[]) result.get("durationSlots");
+        for (int i = 0; i < bestStart.length; i++) {
+            assertTrue(bestStart[i] >= earliest[i]);
+            assertTrue(bestStart[i] + durations[i] <= deadline[i]);
+        }
+        // Over the whole series the best single half-hour is the last one (63%)
+        double[] clean = (double[]) result.get("cleanEnergyPercentage");
+        for (int i = 0; i < bestStart.length; i++) {
+            if (durations[i] == 1 && earliest[i] == 0 && deadline[i] == 4) {
+                assertEquals(3, bestStart[i]);
+                assertEquals(63.0, clean[i]);
+            }
+        }
+    }
+
+    // Test: Durations outside 30 minutes..12 hours should be rejected
+    @Test
+    void sweepChargingScenarios_WithBadDurations_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> energyService.sweepChargingScenarios(0, 4, 2));
+        assertThrows(IllegalArgumentException.class, () -> energyService.sweepChargingScenarios(5, 4, 2));
+        assertThrows(IllegalArgumentException.class, () -> energyService.sweepChargingScenarios(1, 25, 2));
+    }
+
+    // Test: With a power profile the best start is scored by the clean share of the delivered energy
+    @Test
+    void findOptimalChargingWindowForProfile_ShouldWeightByPower() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse, "{\"data\": []}");
+
+        // 4 kW, then 1 kW: (4 * 58 + 1 * 63) / 5 = 59% for the last hour
+        Map<String, Object> result = energyService.findOptimalChargingWindowForProfile(new double[] {4, 1});
+
+        assertEquals("2024-01-01 01:00", result.get("startTime"));
+        assertEquals("2024-01-01 02:00", result.get("endTime"));
+        assertEquals(59.0, result.get("cleanEnergyPercentage"));
+        assertEquals(2.5, result.get("energyKwh"));
+    }
+
+    // Test: Negative, infinite, not-a-number or all-zero power makes no sense
+    @Test
+    void findOptimalChargingWindowForProfile_WithBadProfile_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.findOptimalChargingWindowForProfile(new double[] {7, -1}));
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.findOptimalChargingWindowForProfile(new double[] {7, Double.POSITIVE_INFINITY}));
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.findOptimalChargingWindowForProfile(new double[] {Double.NaN, 7}));
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.findOptimalChargingWindowForProfile(new double[] {0, 0}));
+        assertThrows(IllegalArgumentException.class,
+            () -> energyService.findOptimalChargingWindowForProfile(new double[0]));
+    }
+
+    // Test: A timeout from the API should be retried instead of failing the whole request
+    @Test
+    void getEnergyMixForThreeDays_AfterTimeout_ShouldRetry() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenThrow(new ResourceAccessException("Read timed out"))
+            .thenReturn(mockApiResponse);
+
+        List<DailyMix> result = energyService.getEnergyMixForThreeDays();
+
+        // 3 days plus the one retry
+        assertEquals(3, result.size());
+        verify(restTemplate, times(4)).getForObject(anyString(), eq(String.class));
+    }
+
+    // Test: Every step of a request should get its own span, children linked to their parent
+    // even when they run on another thread
+    @Test
+    void getEnergyMixForThreeDays_ShouldRecordNestedSpans() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse, "{\"data\": []}");
+        Queue<Observation.Context> finished = new ConcurrentLinkedQueue<>();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                finished.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+
+        energyService.getEnergyMixForThreeDays();
+
+        List<Observation.Context> days = finished.stream().filter(c -> c.getName().equals("energy.day")).toList();
+        List<Observation.Context> parses = finished.stream().filter(c -> c.getName().equals("energy.parse")).toList();
+        assertEquals(3, days.size());
+        assertEquals(3, finished.stream().filter(c -> c.getName().equals("energy.upstream")).count());
+        assertEquals(1, finished.stream().filter(c -> c.getName().equals("energy.mix")).count());
+
+        // Each day ran on an upstream thread but is still a child of the request's span
+        days.forEach(day -> assertEquals("energy.mix", day.getParentObservation().getContextView().getName()));
+        assertNotNull(days.get(0).getHighCardinalityKeyValue("date"));
+
+        // Our fake response has 4 intervals for one day and none for the others
+        assertTrue(parses.stream().anyMatch(parse -> parse.getHighCardinalityKeyValue("intervals").getValue().equals("4")));
+    }
+
+    // Test: Another choice of clean fuels should reuse the downloaded data, not call the API again
+    @Test
+    void getEnergyMixForThreeDays_WithOtherTaxonomy_ShouldNotRefetch() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse);
+
+        List<DailyMix> usual = energyService.getEnergyMixForThreeDays();
+        List<DailyMix> lowCarbon = energyService.getEnergyMixForThreeDays(CleanTaxonomy.fromParams("low-carbon", null));
+
+        // Biomass (11.3% on average) no longer counts as clean, the fuel averages stay the same
+        assertEquals(57.1, usual.get(0).cleanEnergyPercentage());
+        assertEquals(45.8, lowCarbon.get(0).cleanEnergyPercentage());
+        assertEquals(usual.get(0).averageMix(), lowCarbon.get(0).averageMix());
+        verify(restTemplate, times(3)).getForObject(anyString(), eq(String.class));
+    }
+
+    // Test: The charging window should be scored with the chosen clean fuels
+    @Test
+    void findOptimalChargingWindow_WithTaxonomy_ShouldUseItsCleanFuels() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenReturn(mockApiResponse, "{\"data\": []}");
+
+        Map<String, Object> usual = energyService.findOptimalChargingWindow(1);
+        Map<String, Object> lowCarbon = energyService.findOptimalChargingWindow(1, CleanTaxonomy.fromParams(null, "nuclear,hydro,wind,solar"));
+
+        // Last hour either way: (58 + 63) / 2 with biomass, (50 + 48) / 2 without
+        assertEquals(60.5, usual.get("cleanEnergyPercentage"));
+        assertEquals(49.0, lowCarbon.get("cleanEnergyPercentage"));
+        assertEquals(usual.get("startTime"), lowCarbon.get("startTime"));
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(String.class));
+    }
+
+    // Our fake data for 2024-01-01, no data for any other day
+    private void answerOnlyFirstJanuary() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+            .thenAnswer(call -> call.getArgument(0, String.class).contains("/generation/2024-01-01T")
+                ? mockApiResponse : "{\"data\": []}");
+    }
+}
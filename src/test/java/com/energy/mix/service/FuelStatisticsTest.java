@@ -0,0 +1,79 @@
+package com.energy.mix.service;
+
+import com.energy.mix.model.Fuel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuelStatisticsTest {
+
+    // Test: Quickselect percentiles should match the simple "sort and interpolate" way
+    @Test
+    void percentile_ShouldMatchSortedArray() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            int count = 1 + random.nextInt(500);
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                // Rounded to whole numbers so there are plenty of equal values
+                values[i] = Math.round(random.nextDouble() * 40);
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            for (double p : new double[] {0.0, 0.1, 0.5, 0.9, 1.0}) {
+                double rank = p * (count - 1);
+                int lower = (int) rank;
+                int upper = Math.min(lower + 1, count - 1);
+                double expected = sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+
+                assertEquals(expected, FuelStatistics.percentile(values.clone(), count, p), 1e-9);
+            }
+        }
+    }
+
+    // Test: Min, max, mean and standard deviation from one pass should match a direct calculation
+    @Test
+    void toResult_ShouldDescribeEachFuel() {
+        FuelStatistics statistics = new FuelStatistics();
+        double[] wind = {10, 20, 30, 40, 50};
+        for (double value : wind) {
+            statistics.add(Fuel.WIND, value);
+            statistics.add(Fuel.GAS, 100 - value);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> fuels = (Map<String, Map<String, Object>>) statistics.toResult().get("fuels");
+        Map<String, Object> windStats = fuels.get("wind");
+
+        // Population standard deviation of 10..50 is sqrt(200) = 14.14...
+        assertEquals(5, windStats.get("count"));
+        assertEquals(10.0, windStats.get("min"));
+        assertEquals(50.0, windStats.get("max"));
+        assertEquals(30.0, windStats.get("mean"));
+        assertEquals(14.1, windStats.get("std"));
+        assertEquals(14.0, windStats.get("p10"));
+        assertEquals(30.0, windStats.get("p50"));
+        assertEquals(46.0, windStats.get("p90"));
+        assertEquals(70.0, fuels.get("gas").get("mean"));
+    }
+
+    // Test: Each day gets the average clean % of its intervals
+    @Test
+    void addDay_ShouldAverageCleanEnergy() {
+        FuelStatistics statistics = new FuelStatistics();
+        statistics.addDay("2024-01-01", new IntervalSeries(new int[] {0, 1}, new double[] {20, 41}, new double[] {0, 20, 61}));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> days = (List<Map<String, Object>>) statistics.toResult().get("days");
+
+        assertEquals(1, days.size());
+        assertEquals("2024-01-01", days.get(0).get("date"));
+        assertEquals(30.5, days.get(0).get("cleanEnergyPercentage"));
+    }
+}
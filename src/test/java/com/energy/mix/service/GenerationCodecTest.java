@@ -0,0 +1,43 @@
+package com.energy.mix.service;
+
+import com.energy.mix.model.Fuel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationCodecTest {
+
+    // Test: Decoding what we encoded should give back exactly the same intervals
+    @Test
+    void decode_ShouldReturnWhatWasEncoded() {
+        List<DayAggregate.IntervalSnapshot> snapshots = List.of(
+            DayAggregateTest.interval(10, Fuel.WIND, 20.5, Fuel.GAS, 79.5),
+            DayAggregateTest.interval(11, Fuel.WIND, 30.0, Fuel.SOLAR, 1.2, Fuel.GAS, 68.8)
+        );
+
+        List<DayAggregate.IntervalSnapshot> decoded = GenerationCodec.decode(GenerationCodec.encode(snapshots));
+
+        assertEquals(2, decoded.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(snapshots.get(i).getStartSlot(), decoded.get(i).getStartSlot());
+            assertTrue(snapshots.get(i).sameAs(decoded.get(i)));
+            assertEquals(snapshots.get(i).getCleanEnergy(), decoded.get(i).getCleanEnergy());
+        }
+        assertEquals(1 << Fuel.WIND.ordinal() | 1 << Fuel.GAS.ordinal(), decoded.get(0).getReported());
+    }
+
+    // Test: An empty day is still valid data
+    @Test
+    void decode_EmptyDay_ShouldReturnNoIntervals() {
+        assertTrue(GenerationCodec.decode(GenerationCodec.encode(List.of())).isEmpty());
+    }
+
+    // Test: Bytes that aren't our format should be rejected
+    @Test
+    void decode_WithBadData_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> GenerationCodec.decode(new byte[] {9, 0}));
+        assertThrows(IllegalArgumentException.class, () -> GenerationCodec.decode(new byte[] {1, 3}));
+    }
+}
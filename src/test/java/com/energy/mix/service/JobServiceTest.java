@@ -0,0 +1,198 @@
+package com.energy.mix.service;
+
+import com.energy.mix.cache.InMemoryGenerationCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private JobService jobService;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (jobService != null) {
+            jobService.shutdown();
+        }
+    }
+
+    // Test: A submitted job should run in the background and its result be available afterwards
+    @Test
+    void submit_ShouldRunJobAndKeepResult() throws Exception {
+        jobService = new JobService(1, 4, 600, 2, meterRegistry, ObservationRegistry.NOOP);
+
+        String id = (String) jobService.submit("test", () -> Map.of("answer", 42)).get("jobId");
+        waitForStatus(id, "done");
+
+        assertEquals(Map.of("answer", 42), jobService.getResult(id));
+        assertEquals(1, meterRegistry.get("energy.jobs.runtime").tag("outcome", "done").timer().count());
+    }
+
+    // Test: A job that throws should end as failed, with the error message and no result
+    @Test
+    void submit_WhenWorkFails_ShouldReportError() throws Exception {
+        jobService = new JobService(1, 4, 600, 2, meterRegistry, ObservationRegistry.NOOP);
+
+        String id = (String) jobService.submit("test", () -> {
+            throw new IllegalArgumentException("Zły parametr");
+        }).get("jobId");
+        waitForStatus(id, "failed");
+
+        assertEquals("Zły parametr", jobService.getStatus(id).get("error"));
+        assertThrows(IllegalStateException.class, () -> jobService.getResult(id));
+    }
+
+    // Test: With the worker busy and the queue full, new jobs should be refused with a retry hint
+    @Test
+    void submit_WhenQueueIsFull_ShouldReject() throws Exception {
+        jobService = new JobService(1, 1, 600, 3, meterRegistry, ObservationRegistry.NOOP);
+        String running = (String) jobService.submit("test", this::waitForRelease).get("jobId");
+        waitForStatus(running, "running");
+        jobService.submit("test", this::waitForRelease);
+
+        // One running, one waiting - the queue depth metric shows the waiting one
+        assertEquals(1.0, meterRegistry.get("energy.jobs.queue.depth").gauge().value());
+        JobQueueFullException e = assertThrows(JobQueueFullException.class,
+            () -> jobService.submit("test", this::waitForRelease));
+        assertEquals(3, e.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("energy.jobs.rejections").counter().count());
+    }
+
+    // Test: Cancelling a waiting job frees its place in the queue and it never runs
+    @Test
+    void cancel_QueuedJob_ShouldNeverRun() throws Exception {
+        jobService = new JobService(1, 1, 600, 2, meterRegistry, ObservationRegistry.NOOP);
+        String running = (String) jobService.submit("test", this::waitForRelease).get("jobId");
+        waitForStatus(running, "running");
+        String queued = (String) jobService.submit("test", () -> fail("should not run")).get("jobId");
+
+        assertEquals("cancelled", jobService.cancel(queued).get("status"));
+
+        // Its place is free again
+        assertEquals(0.0, meterRegistry.get("energy.jobs.queue.depth").gauge().value());
+        assertNotNull(jobService.submit("test", () -> "ok"));
+        release.countDown();
+        waitForStatus(running, "done");
+        assertEquals("cancelled", jobService.getStatus(queued).get("status"));
+    }
+
+    // Test: Cancelling a running range job frees its worker at once and no more days are downloaded
+    @Test
+    void cancel_RunningJob_ShouldFreeWorkerAndStopDownloads() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch downloading = new CountDownLatch(4);
+        // An API that hangs until the test lets it go
+        RestTemplate slowApi = new RestTemplate() {
+            @Override
+            public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+                calls.incrementAndGet();
+                downloading.countDown();
+                waitForRelease();
+                return responseType.cast("{\"data\": []}");
+            }
+        };
+        EnergyService energyService = new EnergyService(slowApi, new ObjectMapper(),
+            new UpstreamBulkhead(8, 32, 500, 2, meterRegistry),
+            new UpstreamCallPolicy(1, 0, 0, 0, false, 0, meterRegistry),
+            new InMemoryGenerationCache(300, 10), ObservationRegistry.NOOP);
+        jobService = new JobService(1, 1, 600, 2, meterRegistry, ObservationRegistry.NOOP);
+        String id = (String) jobService.submit("statistics",
+            () -> energyService.getFuelStatistics(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31))).get("jobId");
+        assertTrue(downloading.await(2, TimeUnit.SECONDS));
+
+        jobService.cancel(id);
+
+        // The only worker takes the next job while the cancelled downloads still hang
+        String next = (String) jobService.submit("test", () -> "ok").get("jobId");
+        waitForStatus(next, "done");
+        assertEquals("cancelled", jobService.getStatus(id).get("status"));
+        assertThrows(IllegalStateException.class, () -> jobService.getResult(id));
+
+        // The 4 days already downloading finish, the other 87 are never asked for
+        release.countDown();
+        Thread.sleep(200);
+        assertEquals(4, calls.get());
+    }
+
+    // Test: Finished jobs should disappear once their results expire
+    @Test
+    void getStatus_AfterResultExpired_ShouldReturnNull() throws Exception {
+        jobService = new JobService(1, 1, 0, 2, meterRegistry, ObservationRegistry.NOOP);
+        String id = (String) jobService.submit("test", () -> "ok").get("jobId");
+
+        long giveUpAt = System.currentTimeMillis() + 2000;
+        while (jobService.getStatus(id) != null && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(10);
+        }
+
+        assertNull(jobService.getStatus(id));
+        assertNull(jobService.getResult(id));
+    }
+
+    // Test: The job's span should belong to the trace of the request that submitted it
+    @Test
+    void submit_ShouldLinkJobSpanToSubmittingSpan() throws Exception {
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        CompletableFuture<Observation.Context> jobSpan = new CompletableFuture<>();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                if (context.getName().equals("energy.job")) {
+                    jobSpan.complete(context);
+                }
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        jobService = new JobService(1, 4, 600, 2, meterRegistry, observationRegistry);
+
+        Observation request = Observation.start("request", observationRegistry);
+        try (Observation.Scope scope = request.openScope()) {
+            jobService.submit("test", () -> "ok");
+        }
+        request.stop();
+
+        Observation.Context job = jobSpan.get(2, TimeUnit.SECONDS);
+        assertEquals("request", job.getParentObservation().getContextView().getName());
+        assertEquals("test", job.getLowCardinalityKeyValue("type").getValue());
+    }
+
+    // Helper: work that blocks until the test lets it go
+    private Object waitForRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "released";
+    }
+
+    // Helper: polls the job like a client would, until it reaches the expected status
+    private void waitForStatus(String id, String expected) throws InterruptedException {
+        long giveUpAt = System.currentTimeMillis() + 2000;
+        while (!expected.equals(jobService.getStatus(id).get("status")) && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, jobService.getStatus(id).get("status"));
+    }
+}
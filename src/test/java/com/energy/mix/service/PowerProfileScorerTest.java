@@ -0,0 +1,88 @@
+package com.energy.mix.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PowerProfileScorerTest {
+
+    // Test: The FFT way should give the same numbers as the plain loop
+    @Test
+    void correlateFft_ShouldMatchDirectLoop() {
+        Random random = new Random(21);
+        for (int round = 0; round < 50; round++) {
+            int n = 1 + random.nextInt(700);
+            int m = 1 + random.nextInt(n);
+            double[] clean = new double[n];
+            double[] profile = new double[m];
+            for (int i = 0; i < n; i++) {
+                clean[i] = Math.round(random.nextDouble() * 1000) / 10.0;
+            }
+            for (int j = 0; j < m; j++) {
+                profile[j] = random.nextDouble() * 11;
+            }
+
+            double[] direct = PowerProfileScorer.correlateDirect(clean, profile);
+            double[] fft = PowerProfileScorer.correlateFft(clean, profile);
+
+            assertEquals(direct.length, fft.length);
+            for (int s = 0; s < direct.length; s++) {
+                assertEquals(direct[s], fft[s], 1e-6 * Math.max(1, Math.abs(direct[s])));
+            }
+        }
+    }
+
+    // Test: With constant power the score is just the plain average of the window
+    @Test
+    void score_FlatProfile_ShouldBePlainAverage() {
+        double[] scores = PowerProfileScorer.score(new double[] {10, 20, 30, 40}, new double[] {7, 7});
+
+        assertArrayEquals(new double[] {15, 25, 35}, scores, 1e-9);
+    }
+
+    // Test: When power tapers, the start of the session matters more than the end
+    @Test
+    void score_TaperingProfile_ShouldFavourCleanStart() {
+        // Clean energy is high for one half-hour, then low again
+        double[] clean = {10, 90, 10, 10};
+        double[] tapering = {10, 1};
+
+        double[] scores = PowerProfileScorer.score(clean, tapering);
+
+        // Starting at the clean half-hour (start 1) beats ending on it (start 0)
+        assertTrue(scores[1] > scores[0]);
+        assertEquals((10 * 90 + 10) / 11.0, scores[1], 1e-9);
+    }
+
+    // Test: Only long profiles on long series are worth the FFT
+    @Test
+    void useFft_ShouldPickFftOnlyForLongInputs() {
+        assertFalse(PowerProfileScorer.useFft(96, 12));
+        assertFalse(PowerProfileScorer.useFft(96, 96));
+        assertFalse(PowerProfileScorer.useFft(17_520, 32));
+        assertTrue(PowerProfileScorer.useFft(17_520, 2_000));
+    }
+
+    // Test: A long profile (FFT path) should still score a flat profile as plain averages
+    @Test
+    void score_LongProfile_ShouldUseFftAndStayCorrect() {
+        int length = 2_000;
+        assertTrue(PowerProfileScorer.useFft(17_520, length));
+        double[] clean = new double[17_520];
+        for (int i = 0; i < clean.length; i++) {
+            clean[i] = i % 10;
+        }
+        double[] profile = new double[length];
+        Arrays.fill(profile, 3.0);
+
+        double[] scores = PowerProfileScorer.score(clean, profile);
+
+        // 2000 consecutive values of 0..9 repeating always average to 4.5
+        for (double score : scores) {
+            assertEquals(4.5, score, 1e-9);
+        }
+    }
+}
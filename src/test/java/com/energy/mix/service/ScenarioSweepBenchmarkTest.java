@@ -0,0 +1,63 @@
+package com.energy.mix.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// How the scenario sweep scales with the number of cores (1, 2, 4... up to all of them).
+// Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class ScenarioSweepBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+
+    // Benchmark: one week of half-hours, durations 30 min to 12 h, hourly grid (~330k scenarios)
+    @Test
+    void measureScaling() {
+        IntervalSeries series = week();
+        ScenarioSweep.Scenarios scenarios = ScenarioSweep.grid(series.size(), 1, 24, 2);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        ScenarioSweep.Results reference = null;
+        double singleCoreMillis = 0;
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            // Warmup so the JIT has compiled the loop before we measure
+            ScenarioSweep.Results results = ScenarioSweep.sweep(series, scenarios, pool);
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                results = ScenarioSweep.sweep(series, scenarios, pool);
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+            pool.shutdown();
+
+            // More threads must never change the answer
+            if (reference == null) {
+                reference = results;
+                singleCoreMillis = millis;
+            }
+            assertArrayEquals(reference.bestStart(), results.bestStart());
+
+            System.out.printf("threads=%2d  scenarios=%d  time=%8.2f ms  speedup=%5.2fx%n",
+                threads, scenarios.size(), millis, singleCoreMillis / millis);
+        }
+    }
+
+    private IntervalSeries week() {
+        Random random = new Random(3);
+        int size = 7 * 48;
+        int[] slots = new int[size];
+        double[] clean = new double[size];
+        double[] prefix = new double[size + 1];
+        for (int i = 0; i < size; i++) {
+            slots[i] = i;
+            clean[i] = Math.round(random.nextDouble() * 1000) / 10.0;
+            prefix[i + 1] = prefix[i] + clean[i];
+        }
+        return new IntervalSeries(slots, clean, prefix);
+    }
+}
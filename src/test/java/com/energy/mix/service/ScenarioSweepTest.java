@@ -0,0 +1,65 @@
+package com.energy.mix.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioSweepTest {
+
+    // Test: Every scenario on the grid must leave room for its window
+    @Test
+    void grid_ShouldOnlyContainScenariosThatFit() {
+        ScenarioSweep.Scenarios scenarios = ScenarioSweep.grid(10, 1, 4, 3);
+
+        assertTrue(scenarios.size() > 0);
+        for (int i = 0; i < scenarios.size(); i++) {
+            assertEquals(0, scenarios.earliest()[i] % 3);
+            assertTrue(scenarios.deadline()[i] <= 10);
+            assertTrue(scenarios.deadline()[i] - scenarios.earliest()[i] >= scenarios.durations()[i]);
+        }
+        // The end of the series (10, not a multiple of 3) is still a deadline
+        boolean endUsed = false;
+        for (int deadline : scenarios.deadline()) {
+            endUsed |= deadline == 10;
+        }
+        assertTrue(endUsed);
+    }
+
+    // Test: The parallel sweep should give the same answer as checking every window one by one
+    @Test
+    void sweep_ShouldMatchBruteForce() {
+        Random random = new Random(5);
+        double[] clean = new double[40];
+        IntervalSeries series = IntervalSeries.EMPTY;
+        for (int i = 0; i < clean.length; i++) {
+            clean[i] = Math.round(random.nextDouble() * 100);
+            series = series.append(new IntervalSeries(new int[] {i}, new double[] {clean[i]}, new double[] {0, clean[i]}));
+        }
+        ScenarioSweep.Scenarios scenarios = ScenarioSweep.grid(series.size(), 1, 8, 2);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ScenarioSweep.Results results = ScenarioSweep.sweep(series, scenarios, pool);
+        pool.shutdown();
+
+        for (int i = 0; i < scenarios.size(); i++) {
+            int duration = scenarios.durations()[i];
+            int best = -1;
+            double bestSum = -1;
+            for (int start = scenarios.earliest()[i]; start + duration <= scenarios.deadline()[i]; start++) {
+                double sum = 0;
+                for (int j = start; j < start + duration; j++) {
+                    sum += clean[j];
+                }
+                if (sum > bestSum + 1e-9) {
+                    bestSum = sum;
+                    best = start;
+                }
+            }
+            assertEquals(best, results.bestStart()[i], "scenario " + i);
+            assertEquals(bestSum / duration, results.averageClean()[i], 1e-9);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.energy.mix.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotSelectorTest {
+
+    // Test: Without a session limit we simply get the N cleanest slots, in time order
+    @Test
+    void cleanestSlots_ShouldPickHighestValues() {
+        double[] clean = {10, 80, 20, 90, 30, 70};
+
+        int[] slots = SlotSelector.cleanestSlots(clean, 3);
+
+        // 80, 90 and 70 are the cleanest
+        assertArrayEquals(new int[] {1, 3, 5}, slots);
+        assertEquals(80.0, SlotSelector.average(clean, slots));
+        assertEquals(3, SlotSelector.countSessions(slots));
+    }
+
+    // Test: When two slots are equally clean, the earlier one should be used
+    @Test
+    void cleanestSlots_WithTies_ShouldPreferEarlierSlots() {
+        double[] clean = {50, 50, 50, 50};
+
+        assertArrayEquals(new int[] {0, 1}, SlotSelector.cleanestSlots(clean, 2));
+    }
+
+    // Test: With only one session allowed, the answer must be one continuous block
+    @Test
+    void cleanestSlots_WithOneSession_ShouldReturnContinuousBlock() {
+        double[] clean = {90, 10, 10, 60, 70, 10, 95};
+
+        int[] slots = SlotSelector.cleanestSlots(clean, 2, 1);
+
+        // 60 + 70 is the best pair of neighbours
+        assertArrayEquals(new int[] {3, 4}, slots);
+        assertEquals(1, SlotSelector.countSessions(slots));
+    }
+
+    // Test: The session-limited result should match trying every possible combination
+    @Test
+    void cleanestSlots_WithSessionLimit_ShouldMatchBruteForce() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            double[] clean = new double[10];
+            for (int i = 0; i < clean.length; i++) {
+                clean[i] = random.nextInt(100);
+            }
+            int needed = 1 + random.nextInt(6);
+            int maxSessions = 1 + random.nextInt(3);
+
+            int[] slots = SlotSelector.cleanestSlots(clean, needed, maxSessions);
+
+            assertEquals(needed, slots.length);
+            assertTrue(SlotSelector.countSessions(slots) <= maxSessions);
+            assertEquals(bruteForceBest(clean, needed, maxSessions), SlotSelector.average(clean, slots) * needed, 1e-9);
+        }
+    }
+
+    // Test: Asking for more slots than there are should fail
+    @Test
+    void cleanestSlots_NotEnoughSlots_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> SlotSelector.cleanestSlots(new double[] {10, 20}, 3));
+    }
+
+    // Helper method: best sum by checking every subset of slots
+    private double bruteForceBest(double[] clean, int needed, int maxSessions) {
+        double best = Double.NEGATIVE_INFINITY;
+        for (int mask = 0; mask < (1 << clean.length); mask++) {
+            if (Integer.bitCount(mask) != needed) {
+                continue;
+            }
+            int[] slots = new int[needed];
+            int j = 0;
+            double sum = 0;
+            for (int i = 0; i < clean.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    slots[j++] = i;
+                    sum += clean[i];
+                }
+            }
+            if (SlotSelector.countSessions(slots) <= maxSessions) {
+                best = Math.max(best, sum);
+            }
+        }
+        return best;
+    }
+}
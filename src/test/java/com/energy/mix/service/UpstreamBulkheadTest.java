@@ -0,0 +1,106 @@
+package com.energy.mix.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamBulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Test: When there's room, the call just runs and returns its result
+    @Test
+    void call_WithFreeSlot_ShouldReturnResult() {
+        UpstreamBulkhead bulkhead = new UpstreamBulkhead(1, 1, 100, 2, meterRegistry);
+
+        assertEquals("ok", bulkhead.call(() -> "ok"));
+        assertEquals(0.0, meterRegistry.get("energy.upstream.bulkhead.rejections").counter().count());
+    }
+
+    // Test: When the only slot is busy and waiting takes too long, we should give up with a retry hint
+    @Test
+    void call_WhenBusyTooLong_ShouldReject() throws Exception {
+        UpstreamBulkhead bulkhead = new UpstreamBulkhead(1, 1, 50, 3, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Keep the only slot busy in the background
+            Future<String> slow = executor.submit(() -> bulkhead.call(() -> {
+                started.countDown();
+                await(release);
+                return "slow";
+            }));
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+
+            UpstreamBusyException e = assertThrows(UpstreamBusyException.class, () -> bulkhead.call(() -> "fast"));
+            assertEquals(3, e.getRetryAfterSeconds());
+            assertEquals(1.0, meterRegistry.get("energy.upstream.bulkhead.rejections").counter().count());
+
+            // The slow call still finishes normally
+            release.countDown();
+            assertEquals("slow", slow.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Test: When the wait queue is full, new callers are turned away immediately
+    @Test
+    void call_WhenQueueFull_ShouldRejectWithoutWaiting() throws Exception {
+        UpstreamBulkhead bulkhead = new UpstreamBulkhead(1, 1, 5_000, 2, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // One call holds the slot, a second one waits in the queue
+            executor.submit(() -> bulkhead.call(() -> {
+                started.countDown();
+                await(release);
+                return "first";
+            }));
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            Future<String> queued = executor.submit(() -> bulkhead.call(() -> "queued"));
+            waitForQueueDepth(1);
+
+            // A third caller has nowhere to wait
+            long start = System.nanoTime();
+            assertThrows(UpstreamBusyException.class, () -> bulkhead.call(() -> "third"));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+            // Once the slot is free, the queued call gets its turn
+            release.countDown();
+            assertEquals("queued", queued.get(1, TimeUnit.SECONDS));
+            assertEquals(0.0, meterRegistry.get("energy.upstream.bulkhead.queue.depth").gauge().value());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void waitForQueueDepth(double depth) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (meterRegistry.get("energy.upstream.bulkhead.queue.depth").gauge().value() == depth) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Queue never reached depth " + depth);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
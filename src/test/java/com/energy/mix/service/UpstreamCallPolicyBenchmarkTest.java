@@ -0,0 +1,132 @@
+package com.energy.mix.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tail latency of upstream calls with and without retries / hedging, against a local HTTP stub
+// that answers in ~20 ms, but 4% of the time takes 800 ms and 1% of the time fails with 503.
+// Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class UpstreamCallPolicyBenchmarkTest {
+
+    private static final int CALLERS = 8;
+    private static final int CALLS_PER_CALLER = 50;
+
+    // Benchmark: p50 / p95 / p99 / max of the same workload under three policies
+    @Test
+    void compareTailLatency() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startStub(requests);
+        String url = "http://localhost:" + server.getAddress().getPort() + "/generation";
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(2000);
+        requestFactory.setReadTimeout(2000);
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+
+        try {
+            run("no retries", new UpstreamCallPolicy(1, 0, 0, 0.1, false, 50, new SimpleMeterRegistry()),
+                restTemplate, url, requests);
+            run("retries", new UpstreamCallPolicy(3, 50, 500, 0.1, false, 50, new SimpleMeterRegistry()),
+                restTemplate, url, requests);
+            run("retries+hedging", new UpstreamCallPolicy(3, 50, 500, 0.1, true, 50, new SimpleMeterRegistry()),
+                restTemplate, url, requests);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private void run(String name, UpstreamCallPolicy policy, RestTemplate restTemplate, String url,
+                     AtomicInteger requests) throws Exception {
+        // Warmup: also gives the policy its first latency samples
+        for (int i = 0; i < 30; i++) {
+            callQuietly(policy, restTemplate, url);
+        }
+        requests.set(0);
+
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int c = 0; c < CALLERS; c++) {
+            results.add(callers.submit(() -> {
+                long[] times = new long[CALLS_PER_CALLER];
+                for (int i = 0; i < CALLS_PER_CALLER; i++) {
+                    long start = System.nanoTime();
+                    boolean ok = callQuietly(policy, restTemplate, url);
+                    // Failed calls count as "never answered"
+                    times[i] = ok ? (System.nanoTime() - start) / 1_000_000 : Long.MAX_VALUE;
+                }
+                return times;
+            }));
+        }
+
+        long[] all = new long[CALLERS * CALLS_PER_CALLER];
+        for (int c = 0; c < CALLERS; c++) {
+            System.arraycopy(results.get(c).get(), 0, all, c * CALLS_PER_CALLER, CALLS_PER_CALLER);
+        }
+        callers.shutdown();
+        policy.shutdown();
+
+        Arrays.sort(all);
+        long failed = Arrays.stream(all).filter(t -> t == Long.MAX_VALUE).count();
+        System.out.printf("%-16s p50=%4d ms  p95=%4d ms  p99=%4s ms  failed=%d  upstream calls=%d for %d requests%n",
+            name, all[all.length / 2], all[(int) (all.length * 0.95)],
+            format(all[(int) (all.length * 0.99)]), failed, requests.get(), all.length);
+    }
+
+    private boolean callQuietly(UpstreamCallPolicy policy, RestTemplate restTemplate, String url) {
+        try {
+            policy.call(() -> restTemplate.getForObject(url, String.class));
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private String format(long millis) {
+        return millis == Long.MAX_VALUE ? "fail" : String.valueOf(millis);
+    }
+
+    // Local stand-in for the energy API with injected latency and errors
+    private HttpServer startStub(AtomicInteger requests) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        Random random = new Random(9);
+        byte[] body = "{\"data\": []}".getBytes(StandardCharsets.UTF_8);
+        server.createContext("/generation", exchange -> {
+            requests.incrementAndGet();
+            int roll;
+            synchronized (random) {
+                roll = random.nextInt(100);
+            }
+            try {
+                Thread.sleep(roll < 4 ? 800 : 20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (roll == 99) {
+                exchange.sendResponseHeaders(503, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,178 @@
+package com.energy.mix.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamCallPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UpstreamCallPolicy policy;
+
+    @AfterEach
+    void tearDown() {
+        policy.shutdown();
+    }
+
+    // Test: A call that fails once with a timeout should be tried again and succeed
+    @Test
+    void call_AfterTemporaryFailure_ShouldRetry() {
+        policy = new UpstreamCallPolicy(3, 1, 5, 0.1, false, 50, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = policy.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ResourceAccessException("Read timed out");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.get("energy.upstream.retries").counter().count());
+    }
+
+    // Test: Errors another try can't fix (like 404 or our own overload) should not be retried
+    @Test
+    void call_WithNonRetryableError_ShouldFailAtOnce() {
+        policy = new UpstreamCallPolicy(3, 1, 5, 0.1, false, 50, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class, () -> policy.call(() -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+        assertThrows(UpstreamBusyException.class, () -> policy.call(() -> {
+            calls.incrementAndGet();
+            throw new UpstreamBusyException(2);
+        }));
+
+        assertEquals(2, calls.get());
+    }
+
+    // Test: After the last attempt the original error should reach the caller
+    @Test
+    void call_WhenAlwaysFailing_ShouldStopAfterMaxAttempts() {
+        policy = new UpstreamCallPolicy(3, 1, 5, 0.1, false, 50, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(HttpServerErrorException.class, () -> policy.call(() -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+
+        assertEquals(3, calls.get());
+    }
+
+    // Test: When the API is down for a long time, the budget should stop us from retrying everything
+    @Test
+    void call_WhenBudgetIsUsedUp_ShouldStopRetrying() {
+        policy = new UpstreamCallPolicy(2, 0, 0, 0.0, false, 50, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        // The budget starts with 10 extra calls and earns nothing (ratio 0)
+        for (int i = 0; i < 15; i++) {
+            assertThrows(ResourceAccessException.class, () -> policy.call(() -> {
+                calls.incrementAndGet();
+                throw new ResourceAccessException("down");
+            }));
+        }
+
+        // 15 first attempts + only 10 retries
+        assertEquals(25, calls.get());
+        assertEquals(5.0, meterRegistry.get("energy.upstream.retry.budget.exhausted").counter().count());
+    }
+
+    // Test: A call much slower than usual should be hedged, and the fast second answer used
+    @Test
+    void call_WhenSlowerThanP95_ShouldHedge() {
+        policy = new UpstreamCallPolicy(1, 0, 0, 0.1, true, 20, meterRegistry);
+
+        // Teach the policy that calls normally take a few milliseconds
+        for (int i = 0; i < 30; i++) {
+            policy.call(() -> "fast");
+        }
+        assertTrue(policy.latencyP95() >= 0);
+
+        // The first call hangs for 2 s, the hedge answers straight away
+        AtomicInteger calls = new AtomicInteger();
+        long start = System.nanoTime();
+        String result = policy.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(2000);
+                return "slow";
+            }
+            return "hedged";
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("hedged", result);
+        assertTrue(millis < 1000, "took " + millis + " ms");
+        assertEquals(1.0, meterRegistry.get("energy.upstream.hedges").counter().count());
+    }
+
+    // Test: Once the hedge has answered, the slow call should be stopped and give back its bulkhead permit
+    @Test
+    void call_WhenHedgeWins_ShouldStopSlowCall() throws Exception {
+        policy = new UpstreamCallPolicy(1, 0, 0, 0.1, true, 20, meterRegistry);
+        UpstreamBulkhead bulkhead = new UpstreamBulkhead(2, 4, 500, 2, meterRegistry);
+        for (int i = 0; i < 30; i++) {
+            policy.call(() -> bulkhead.call(() -> "fast"));
+        }
+
+        // The first call hangs for 5 s unless it's interrupted, the hedge answers straight away
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch slowCallEnded = new CountDownLatch(1);
+        String result = policy.call(() -> bulkhead.call(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(5000);
+                slowCallEnded.countDown();
+                return "slow";
+            }
+            return "hedged";
+        }));
+
+        assertEquals("hedged", result);
+        assertTrue(slowCallEnded.await(1, TimeUnit.SECONDS), "the slow call kept running");
+        // Both permits are free again: two calls at once get through
+        CountDownLatch bothInside = new CountDownLatch(2);
+        CompletableFuture<String> other = CompletableFuture.supplyAsync(() -> bulkhead.call(() -> {
+            bothInside.countDown();
+            awaitQuietly(bothInside);
+            return "ok";
+        }));
+        assertEquals("ok", bulkhead.call(() -> {
+            bothInside.countDown();
+            awaitQuietly(bothInside);
+            return "ok";
+        }));
+        assertEquals("ok", other.get(1, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.energy.mix.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamTimeTest {
+
+    // Test: Our hand-written parser should agree with java.time for any date
+    @Test
+    void parseEpochMinutes_ShouldMatchJavaTime() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            // Random minute between 1900 and 2100
+            long minute = -36_816_480L + (long) (random.nextDouble() * 105_190_560L);
+            LocalDateTime time = LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+            String text = String.format("%04d-%02d-%02dT%02d:%02dZ",
+                time.getYear(), time.getMonthValue(), time.getDayOfMonth(), time.getHour(), time.getMinute());
+
+            assertEquals(minute, UpstreamTime.parseEpochMinutes(text), text);
+        }
+    }
+
+    // Test: Both timestamp styles the API uses should give the same slot
+    @Test
+    void parseSlot_ShouldAcceptWithAndWithoutSeconds() {
+        int slot = UpstreamTime.parseSlot("2024-01-01T00:30Z");
+
+        assertEquals(slot, UpstreamTime.parseSlot("2024-01-01T00:30:00Z"));
+        assertEquals(slot - 1, UpstreamTime.parseSlot("2024-01-01T00:00Z"));
+    }
+
+    // Test: Anything that isn't the API format should be rejected, not silently misread
+    @Test
+    void parseSlot_WithBadInput_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> UpstreamTime.parseSlot("2024-01-01 00:30"));
+        assertThrows(IllegalArgumentException.class, () -> UpstreamTime.parseSlot("2024-13-01T00:30Z"));
+        assertThrows(IllegalArgumentException.class, () -> UpstreamTime.parseSlot("2024-01-01T0a:30Z"));
+    }
+
+    // Test: Days when the clocks change have 46 or 50 half-hours, normal days 48
+    @Test
+    void slotsInDay_ShouldFollowUkClockChanges() {
+        assertEquals(48, UpstreamTime.slotsInDay(LocalDate.of(2024, 1, 15)));
+        assertEquals(46, UpstreamTime.slotsInDay(LocalDate.of(2024, 3, 31)));
+        assertEquals(50, UpstreamTime.slotsInDay(LocalDate.of(2024, 10, 27)));
+    }
+
+    // Test: A UK summer day starts at 23:00 UTC the evening before
+    @Test
+    void formatForApi_InSummer_ShouldUseUtcStartOfUkDay() {
+        assertEquals("2024-05-31T23:00Z", UpstreamTime.formatForApi(LocalDate.of(2024, 6, 1)));
+        assertEquals("2024-01-15T00:00Z", UpstreamTime.formatForApi(LocalDate.of(2024, 1, 15)));
+    }
+
+    // Test: Times shown to people are UK local time
+    @Test
+    void formatSlot_ShouldShowUkLocalTime() {
+        assertEquals("2024-06-01 13:00", UpstreamTime.formatSlot(UpstreamTime.parseSlot("2024-06-01T12:00Z")));
+        assertEquals("2024-01-01 12:00", UpstreamTime.formatSlot(UpstreamTime.parseSlot("2024-01-01T12:00Z")));
+    }
+
+    // Test: The half-hour of the local day follows UK summer time
+    @Test
+    void localSlotOfDay_ShouldUseUkLocalTime() {
+        assertEquals(0, UpstreamTime.localSlotOfDay(UpstreamTime.parseSlot("2024-01-01T00:00Z")));
+        // 12:00 UTC in June is 13:00 in London
+        assertEquals(26, UpstreamTime.localSlotOfDay(UpstreamTime.parseSlot("2024-06-01T12:00Z")));
+        assertEquals(0, UpstreamTime.localSlotOfDay(UpstreamTime.parseSlot("2024-05-31T23:00Z")));
+    }
+}